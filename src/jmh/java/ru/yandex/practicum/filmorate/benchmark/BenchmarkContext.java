@@ -0,0 +1,41 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String databaseName, String... properties) {
+        return run(WebApplicationType.NONE, databaseName, properties);
+    }
+
+    static ConfigurableApplicationContext startServer(String databaseName, String... properties) {
+        return run(WebApplicationType.SERVLET, databaseName, properties);
+    }
+
+    private static ConfigurableApplicationContext run(WebApplicationType type, String databaseName,
+                                                      String... properties) {
+        Map<String, String> args = new LinkedHashMap<>();
+        args.put("spring.datasource.url", "jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1");
+        args.put("logging.level.root", "WARN");
+        args.put("logging.level.org.zalando.logbook", "WARN");
+        args.put("server.port", "0");
+        for (String property : properties) {
+            int separator = property.indexOf('=');
+            args.put(property.substring(0, separator), property.substring(separator + 1));
+        }
+        return new SpringApplicationBuilder(FilmorateApplication.class)
+                .web(type)
+                .run(args.entrySet().stream()
+                        .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                        .toArray(String[]::new));
+    }
+}
@@ -0,0 +1,90 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.datagen.DatasetGenerator;
+import ru.yandex.practicum.filmorate.datagen.DatasetProperties;
+import ru.yandex.practicum.filmorate.datagen.DatasetReport;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+final class BenchmarkData {
+
+    final DatasetReport report;
+    final long[][] friendships;
+
+    private BenchmarkData(DatasetReport report, long[][] friendships) {
+        this.report = report;
+        this.friendships = friendships;
+    }
+
+    static BenchmarkData seed(JdbcTemplate jdbcTemplate, int users) {
+        DatasetProperties properties = new DatasetProperties();
+        properties.setUsers(users);
+        properties.setFilms(Math.max(100, users / 10));
+        properties.setBatchSize(10_000);
+        DatasetReport report = new DatasetGenerator(jdbcTemplate, properties).generate();
+
+        List<long[]> friendships = jdbcTemplate.query("""
+                SELECT initiator_user_id, friend_user_id
+                FROM friendship
+                ORDER BY RAND(42)
+                LIMIT 1024
+                """, (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2)});
+        return new BenchmarkData(report, friendships.toArray(long[][]::new));
+    }
+
+    long addUnlikedFilms(JdbcTemplate jdbcTemplate, int count) {
+        long firstId = jdbcTemplate.queryForObject("SELECT MAX(film_id) FROM films", Long.class) + 1;
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{"premiere" + i, "description", Date.valueOf(LocalDate.of(2024, 1, 1)), 100, 1});
+        }
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO films (title, description, release_date, duration_min, rating_id)
+                VALUES (?, ?, ?, ?, ?)
+                """, rows);
+        return firstId;
+    }
+
+    void copyTo(JdbcTemplate jdbcTemplate, InMemoryFilmStorage filmStorage, InMemoryUserStorage userStorage) {
+        jdbcTemplate.query("SELECT * FROM users ORDER BY user_id", rs -> {
+            User user = new User();
+            user.setLogin(rs.getString("login"));
+            user.setEmail(rs.getString("email"));
+            user.setName(rs.getString("name"));
+            user.setBirthday(rs.getDate("birthday").toLocalDate());
+            userStorage.addNewUser(user);
+        });
+        jdbcTemplate.query("SELECT * FROM films ORDER BY film_id", rs -> {
+            Film film = new Film();
+            film.setName(rs.getString("title"));
+            film.setDescription(rs.getString("description"));
+            film.setReleaseDate(rs.getDate("release_date").toLocalDate());
+            film.setDuration(rs.getInt("duration_min"));
+            MpaRating mpa = new MpaRating();
+            mpa.setId(rs.getInt("rating_id"));
+            film.setMpa(mpa);
+            filmStorage.addNewFilm(film);
+        });
+        jdbcTemplate.query("SELECT film_id, genre_id FROM film_genre ORDER BY film_id, genre_id", rs -> {
+            Genre genre = new Genre();
+            genre.setId(rs.getInt("genre_id"));
+            filmStorage.findById(rs.getLong("film_id")).orElseThrow().getGenres().add(genre);
+        });
+        jdbcTemplate.query("SELECT film_id, user_id FROM likes", rs -> {
+            filmStorage.addLike(rs.getLong("film_id"), rs.getLong("user_id"));
+        });
+        jdbcTemplate.query("SELECT initiator_user_id, friend_user_id FROM friendship", rs -> {
+            userStorage.addFriend(rs.getLong("initiator_user_id"), rs.getLong("friend_user_id"));
+        });
+    }
+}
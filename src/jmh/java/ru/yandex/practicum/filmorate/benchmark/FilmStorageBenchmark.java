@@ -0,0 +1,66 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.dao.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class FilmStorageBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int users;
+
+    @Param({"db", "memory"})
+    private String storage;
+
+    private ConfigurableApplicationContext context;
+    private FilmStorage filmStorage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("films" + users + storage);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkData data = BenchmarkData.seed(jdbcTemplate, users);
+        if ("db".equals(storage)) {
+            FilmDbStorage dbStorage = context.getBean(FilmDbStorage.class);
+            dbStorage.loadPopularityIndex();
+            filmStorage = dbStorage;
+        } else {
+            InMemoryFilmStorage memoryStorage = context.getBean(InMemoryFilmStorage.class);
+            data.copyTo(jdbcTemplate, memoryStorage, context.getBean(InMemoryUserStorage.class));
+            filmStorage = memoryStorage;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Film> topRatedFilms() {
+        return filmStorage.getTopRatedFilms(10);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void filmList(Blackhole blackhole) {
+        for (Film film : filmStorage.getFilmList()) {
+            blackhole.consume(film);
+        }
+    }
+}
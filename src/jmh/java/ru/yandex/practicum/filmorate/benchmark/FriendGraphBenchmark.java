@@ -0,0 +1,93 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.storage.dao.UserDbStorage;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FriendGraphBenchmark {
+
+    private static final String LOAD_FRIENDS_SQL = """
+            SELECT friend_user_id
+            FROM friendship
+            WHERE initiator_user_id = ?
+            """;
+
+    @Param({"1000", "10000"})
+    private int users;
+
+    @Param({"50"})
+    private int friendsPerUser;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private UserDbStorage userStorage;
+    private long[][] pairs;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("friends" + users);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        userStorage = context.getBean(UserDbStorage.class);
+
+        List<Object[]> userRows = new ArrayList<>();
+        for (int i = 1; i <= users; i++) {
+            userRows.add(new Object[]{"user" + i, "user" + i + "@mail.ru", "user" + i, Date.valueOf(LocalDate.of(1990, 1, 1))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (login, email, name, birthday) VALUES (?, ?, ?, ?)", userRows);
+
+        Random random = new Random(42);
+        List<Object[]> friendRows = new ArrayList<>();
+        for (long userId = 1; userId <= users; userId++) {
+            Set<Long> friendIds = new HashSet<>();
+            while (friendIds.size() < Math.min(friendsPerUser, users - 1)) {
+                long friendId = 1 + random.nextInt(users);
+                if (friendId != userId && friendIds.add(friendId)) {
+                    friendRows.add(new Object[]{userId, friendId});
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO friendship (initiator_user_id, friend_user_id) VALUES (?, ?)", friendRows);
+        userStorage.loadFriendGraph();
+
+        pairs = new long[1024][];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = new long[]{1 + random.nextInt(users), 1 + random.nextInt(users)};
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Long> commonFriendsIndex() {
+        long[] pair = nextPair();
+        return userStorage.getCommonFriendIds(pair[0], pair[1]);
+    }
+
+    @Benchmark
+    public Set<Long> commonFriendsSql() {
+        long[] pair = nextPair();
+        Set<Long> common = new HashSet<>(jdbcTemplate.queryForList(LOAD_FRIENDS_SQL, Long.class, pair[0]));
+        common.retainAll(new HashSet<>(jdbcTemplate.queryForList(LOAD_FRIENDS_SQL, Long.class, pair[1])));
+        return common;
+    }
+
+    private long[] nextPair() {
+        return pairs[cursor++ & (pairs.length - 1)];
+    }
+}
@@ -0,0 +1,108 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.storage.dao.UserDbStorage;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FriendSuggestionBenchmark {
+
+    private static final long[] TARGET_USERS = {1, 2};
+    private static final int OTHER_USERS = 10_000;
+    private static final int FRIENDS_OF_FRIEND = 20;
+    private static final int BATCH_SIZE = 10_000;
+    private static final int SUGGESTIONS = 10;
+
+    private static final String SUGGEST_FRIENDS_SQL = """
+            SELECT f2.friend_user_id, COUNT(*) AS mutual_friends
+            FROM friendship f1
+            JOIN friendship f2 ON f2.initiator_user_id = f1.friend_user_id
+            WHERE f1.initiator_user_id = ?
+              AND f2.friend_user_id <> f1.initiator_user_id
+              AND NOT EXISTS (SELECT 1 FROM friendship f3
+                              WHERE f3.initiator_user_id = f1.initiator_user_id
+                                AND f3.friend_user_id = f2.friend_user_id)
+            GROUP BY f2.friend_user_id
+            ORDER BY mutual_friends DESC, f2.friend_user_id
+            LIMIT ?
+            """;
+
+    @Param({"10", "1000", "100000"})
+    private int friends;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private UserDbStorage userStorage;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("suggestions" + friends);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        userStorage = context.getBean(UserDbStorage.class);
+
+        int users = TARGET_USERS.length + friends + OTHER_USERS;
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= users; i++) {
+            rows.add(new Object[]{"user" + i, "user" + i + "@mail.ru", "user" + i, Date.valueOf(LocalDate.of(1990, 1, 1))});
+            flushIfFull(rows, "INSERT INTO users (login, email, name, birthday) VALUES (?, ?, ?, ?)", false);
+        }
+        flushIfFull(rows, "INSERT INTO users (login, email, name, birthday) VALUES (?, ?, ?, ?)", true);
+
+        String insertFriend = "INSERT INTO friendship (initiator_user_id, friend_user_id) VALUES (?, ?)";
+        Random random = new Random(42);
+        long firstFriend = TARGET_USERS.length + 1;
+        for (long friendId = firstFriend; friendId < firstFriend + friends; friendId++) {
+            for (long targetUser : TARGET_USERS) {
+                rows.add(new Object[]{targetUser, friendId});
+            }
+            Set<Long> friendIds = new HashSet<>();
+            while (friendIds.size() < FRIENDS_OF_FRIEND) {
+                long candidate = 1 + random.nextInt(users);
+                if (candidate != friendId && friendIds.add(candidate)) {
+                    rows.add(new Object[]{friendId, candidate});
+                }
+            }
+            flushIfFull(rows, insertFriend, false);
+        }
+        flushIfFull(rows, insertFriend, true);
+        userStorage.loadFriendGraph();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Long> suggestionsIndex() {
+        return userStorage.getFriendSuggestionIds(nextTarget(), SUGGESTIONS);
+    }
+
+    @Benchmark
+    public List<Long> suggestionsSql() {
+        return jdbcTemplate.query(SUGGEST_FRIENDS_SQL, (rs, rowNum) -> rs.getLong(1), nextTarget(), SUGGESTIONS);
+    }
+
+    private long nextTarget() {
+        return TARGET_USERS[cursor++ & 1];
+    }
+
+    private void flushIfFull(List<Object[]> rows, String sql, boolean force) {
+        if (rows.size() >= BATCH_SIZE || (force && !rows.isEmpty())) {
+            jdbcTemplate.batchUpdate(sql, rows);
+            rows.clear();
+        }
+    }
+}
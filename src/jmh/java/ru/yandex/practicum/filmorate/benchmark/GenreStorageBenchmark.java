@@ -0,0 +1,66 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.dao.GenreStorage;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class GenreStorageBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int users;
+
+    @Param({"10", "100"})
+    private int filmsPerCall;
+
+    private ConfigurableApplicationContext context;
+    private GenreStorage genreStorage;
+    private Map<Long, Film>[] requests;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        context = BenchmarkContext.start("genres" + users + "x" + filmsPerCall);
+        BenchmarkData data = BenchmarkData.seed(context.getBean(JdbcTemplate.class), users);
+        genreStorage = context.getBean(GenreStorage.class);
+
+        Random random = new Random(42);
+        requests = new Map[256];
+        for (int i = 0; i < requests.length; i++) {
+            Map<Long, Film> films = new HashMap<>();
+            while (films.size() < filmsPerCall) {
+                long filmId = data.report.firstFilmId() + random.nextInt(data.report.films());
+                Film film = new Film();
+                film.setId(filmId);
+                films.put(filmId, film);
+            }
+            requests[i] = films;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Map<Long, Set<Genre>> genresForFilms() {
+        Map<Long, Film> films = requests[cursor++ & (requests.length - 1)];
+        return genreStorage.getGenresForFilms(films.keySet(), films);
+    }
+}
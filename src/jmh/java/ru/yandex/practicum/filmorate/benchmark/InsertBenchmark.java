@@ -0,0 +1,66 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.dao.UserDbStorage;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InsertBenchmark {
+
+    @Param({"QUERY_CACHE_SIZE=0", "CACHE_SIZE=131072;QUERY_CACHE_SIZE=64"})
+    private String h2Options;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private UserDbStorage userStorage;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("insert" + Math.abs(h2Options.hashCode()) + ";" + h2Options);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        userStorage = context.getBean(UserDbStorage.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Number insertPerCall() {
+        SimpleJdbcInsert insertUser = new SimpleJdbcInsert(jdbcTemplate)
+                .withTableName("users")
+                .usingGeneratedKeyColumns("user_id");
+
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("login", "per-call" + sequence);
+        parameters.put("email", "per-call" + sequence + "@mail.ru");
+        parameters.put("name", "user" + sequence++);
+        parameters.put("birthday", LocalDate.of(1990, 1, 1));
+        return insertUser.executeAndReturnKey(parameters);
+    }
+
+    @Benchmark
+    public Long insertShared() {
+        User user = new User();
+        user.setLogin("shared" + sequence);
+        user.setEmail("shared" + sequence + "@mail.ru");
+        user.setName("user" + sequence++);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return userStorage.addNewUser(user).getId();
+    }
+}
@@ -0,0 +1,57 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.dao.FilmDbStorage;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class LikeBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int users;
+
+    @Param({"false", "true"})
+    private boolean writeBehind;
+
+    private ConfigurableApplicationContext context;
+    private FilmService filmService;
+    private static final int FREE_FILMS = 1000;
+
+    private long firstFreeFilm;
+    private long firstUser;
+    private long cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("likes" + users + writeBehind,
+                "filmorate.likes.write-behind.enabled=" + writeBehind);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkData data = BenchmarkData.seed(jdbcTemplate, users);
+        firstFreeFilm = data.addUnlikedFilms(jdbcTemplate, FREE_FILMS);
+        firstUser = data.report.firstUserId();
+        context.getBean(FilmDbStorage.class).loadPopularityIndex();
+        filmService = context.getBean(FilmService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void likeFilm() {
+        long filmId = firstFreeFilm + cursor % FREE_FILMS;
+        long userId = firstUser + cursor / FREE_FILMS % users;
+        cursor++;
+        filmService.likeFilm(filmId, userId);
+    }
+}
@@ -0,0 +1,81 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class LogbookBenchmark {
+
+    @Param({"off", "full", "prodlog"})
+    private String logging;
+
+    private ConfigurableApplicationContext context;
+    private PrintStream originalOut;
+    private PrintStream logOut;
+    private HttpClient client;
+    private HttpRequest filmList;
+    private String baseUrl;
+    private long firstFilmId;
+    private int films;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        originalOut = System.out;
+        logOut = new PrintStream(new FileOutputStream("target/logbook-benchmark-" + logging + ".log"), false);
+        System.setOut(logOut);
+
+        context = switch (logging) {
+            case "off" -> BenchmarkContext.startServer("logbook" + logging);
+            case "full" -> BenchmarkContext.startServer("logbook" + logging,
+                    "logging.level.org.zalando.logbook=TRACE");
+            case "prodlog" -> BenchmarkContext.startServer("logbook" + logging,
+                    "spring.profiles.active=prodlog", "logging.level.org.zalando.logbook=TRACE");
+            default -> throw new IllegalStateException("Неизвестный режим логирования: " + logging);
+        };
+        BenchmarkData data = BenchmarkData.seed(context.getBean(JdbcTemplate.class), 10_000);
+        firstFilmId = data.report.firstFilmId();
+        films = data.report.films();
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port;
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        filmList = HttpRequest.newBuilder(URI.create(baseUrl + "/films")).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        System.setOut(originalOut);
+        logOut.close();
+    }
+
+    @Benchmark
+    public int filmById() throws IOException, InterruptedException {
+        long filmId = firstFilmId + ThreadLocalRandom.current().nextInt(films);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/films/" + filmId)).build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Benchmark
+    public int filmList() throws IOException, InterruptedException {
+        return client.send(filmList, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
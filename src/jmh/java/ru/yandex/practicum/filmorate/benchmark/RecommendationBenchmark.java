@@ -0,0 +1,103 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.storage.dao.LikeDbStorage;
+import ru.yandex.practicum.filmorate.storage.index.LikeMatrix;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class RecommendationBenchmark {
+
+    private static final int RECOMMENDATIONS = 10;
+
+    private static final String RECOMMEND_FILMS_SQL = """
+            SELECT l.film_id, SUM(n.overlap) AS score
+            FROM (SELECT o.user_id, COUNT(*) AS overlap
+                  FROM likes m
+                  JOIN likes o ON o.film_id = m.film_id
+                  WHERE m.user_id = ? AND o.user_id <> m.user_id
+                  GROUP BY o.user_id
+                  ORDER BY overlap DESC, o.user_id
+                  LIMIT 20) n
+            JOIN likes l ON l.user_id = n.user_id
+            WHERE NOT EXISTS (SELECT 1 FROM likes x WHERE x.user_id = ? AND x.film_id = l.film_id)
+            GROUP BY l.film_id
+            ORDER BY score DESC, l.film_id
+            LIMIT ?
+            """;
+
+    @Param({"10000", "100000", "1000000"})
+    private int users;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private LikeMatrix likeMatrix;
+    private long[] targets;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("recommendations" + users);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkData data = BenchmarkData.seed(jdbcTemplate, users);
+        likeMatrix = context.getBean(LikeMatrix.class);
+        reportMemory(context.getBean(LikeDbStorage.class));
+
+        Random random = new Random(42);
+        targets = new long[1024];
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = data.report.firstUserId() + random.nextInt(users);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long[] recommendationsIndex() {
+        return likeMatrix.recommend(nextTarget(), RECOMMENDATIONS);
+    }
+
+    @Benchmark
+    public List<Long> recommendationsSql() {
+        long userId = nextTarget();
+        return jdbcTemplate.query(RECOMMEND_FILMS_SQL, (rs, rowNum) -> rs.getLong(1), userId, userId,
+                RECOMMENDATIONS);
+    }
+
+    private void reportMemory(LikeDbStorage likeStorage) {
+        likeMatrix.reset(Map.of());
+        long before = usedHeap();
+        likeStorage.loadLikeMatrix();
+        long after = usedHeap();
+        double perMillion = 1_000_000.0 / likeMatrix.likeCount();
+        System.out.printf("LikeMatrix: %d лайков, по куче %.1f МБ, по оценке %.1f МБ на миллион лайков%n",
+                likeMatrix.likeCount(), (after - before) * perMillion / (1 << 20),
+                likeMatrix.estimatedBytes() * perMillion / (1 << 20));
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private long nextTarget() {
+        return targets[cursor++ & (targets.length - 1)];
+    }
+}
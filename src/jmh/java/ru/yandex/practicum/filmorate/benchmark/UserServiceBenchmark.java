@@ -0,0 +1,77 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.dao.UserDbStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class UserServiceBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int users;
+
+    @Param({"db", "memory"})
+    private String storage;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private long[][] pairs;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("users" + users + storage);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkData data = BenchmarkData.seed(jdbcTemplate, users);
+        if ("db".equals(storage)) {
+            UserDbStorage dbStorage = context.getBean(UserDbStorage.class);
+            dbStorage.loadFriendGraph();
+            userService = new UserService(dbStorage);
+        } else {
+            InMemoryUserStorage memoryStorage = context.getBean(InMemoryUserStorage.class);
+            data.copyTo(jdbcTemplate, context.getBean(InMemoryFilmStorage.class), memoryStorage);
+            userService = new UserService(memoryStorage);
+        }
+
+        pairs = data.friendships;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<User> generalFriendList() {
+        long[] pair = pairs[cursor++ & (pairs.length - 1)];
+        return userService.getGeneralFriendList(pair[0], pair[1]);
+    }
+
+    @Benchmark
+    public User userProfile() {
+        long[] pair = pairs[cursor++ & (pairs.length - 1)];
+        return userService.getUserById(pair[0]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void userList(Blackhole blackhole) {
+        for (User user : userService.getUserList()) {
+            blackhole.consume(user);
+        }
+    }
+}
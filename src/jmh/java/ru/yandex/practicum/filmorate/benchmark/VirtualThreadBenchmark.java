@@ -0,0 +1,73 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class VirtualThreadBenchmark {
+
+    @Param({"10000"})
+    private int users;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private BenchmarkData data;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String profiles = "virtual".equals(threads) ? "perf,virtual" : "perf";
+        context = BenchmarkContext.startServer("threads" + users + threads,
+                "spring.profiles.active=" + profiles, "logging.level.org.zalando.logbook=WARN");
+        data = BenchmarkData.seed(context.getBean(JdbcTemplate.class), users);
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port;
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int userProfile() throws IOException, InterruptedException {
+        long userId = data.report.firstUserId() + ThreadLocalRandom.current().nextInt(users);
+        return get("/users/" + userId);
+    }
+
+    @Benchmark
+    public int commonFriends() throws IOException, InterruptedException {
+        long[] pair = data.friendships[ThreadLocalRandom.current().nextInt(data.friendships.length)];
+        return get("/users/" + pair[0] + "/friends/common/" + pair[1]);
+    }
+
+    private int get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,51 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+import org.zalando.logbook.Strategy;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+@Configuration
+public class LogbookConfig {
+
+    @Bean
+    public Predicate<HttpRequest> requestCondition(@Value("${filmorate.logbook.sample-rate:1.0}") double sampleRate) {
+        if (sampleRate >= 1.0) {
+            return request -> true;
+        }
+        if (sampleRate <= 0.0) {
+            return request -> false;
+        }
+        return request -> ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    @Bean
+    public Strategy strategy(@Value("${filmorate.logbook.body-excluded-paths:}") Set<String> bodyExcludedPaths) {
+        if (bodyExcludedPaths.isEmpty()) {
+            return new Strategy() {
+            };
+        }
+        return new Strategy() {
+            @Override
+            public HttpRequest process(HttpRequest request) throws IOException {
+                return isExcluded(request) ? request.withoutBody() : request.withBody();
+            }
+
+            @Override
+            public HttpResponse process(HttpRequest request, HttpResponse response) throws IOException {
+                return isExcluded(request) ? response.withoutBody() : response.withBody();
+            }
+
+            private boolean isExcluded(HttpRequest request) {
+                return "GET".equals(request.getMethod()) && bodyExcludedPaths.contains(request.getPath());
+            }
+        };
+    }
+}
@@ -0,0 +1,90 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.yandex.practicum.filmorate.metrics.RequestQueryCounter;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class StorageExecutorConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService storageExecutor(@Value("${filmorate.storage.parallelism:4}") int parallelism,
+                                           @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads) {
+            return new BoundedVirtualThreadExecutor(parallelism);
+        }
+        return new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), threadFactory("storage-", false)) {
+            @Override
+            public void execute(Runnable command) {
+                super.execute(RequestQueryCounter.propagate(command));
+            }
+        };
+    }
+
+    public static ThreadFactory threadFactory(String prefix, boolean virtualThreads) {
+        if (virtualThreads) {
+            return Thread.ofVirtual().name(prefix, 1).factory();
+        }
+        return Thread.ofPlatform().daemon().name(prefix, 1).factory();
+    }
+
+    private static final class BoundedVirtualThreadExecutor extends AbstractExecutorService {
+
+        private final ExecutorService delegate = Executors.newThreadPerTaskExecutor(threadFactory("storage-", true));
+        private final Semaphore permits;
+
+        private BoundedVirtualThreadExecutor(int parallelism) {
+            this.permits = new Semaphore(parallelism);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            Runnable task = RequestQueryCounter.propagate(command);
+            delegate.execute(() -> {
+                permits.acquireUninterruptibly();
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+}
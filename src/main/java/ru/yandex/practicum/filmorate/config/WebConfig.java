@@ -0,0 +1,21 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.yandex.practicum.filmorate.cache.CatalogEtagInterceptor;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final CatalogEtagInterceptor catalogEtagInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(catalogEtagInterceptor)
+                .addPathPatterns("/films", "/films/popular", "/films/{id}", "/genres/**", "/mpa/**")
+                .excludePathPatterns("/films/trending");
+    }
+}
@@ -1,13 +1,20 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmImportService;
 import ru.yandex.practicum.filmorate.service.FilmService;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.List;
 
@@ -18,8 +25,11 @@ import java.util.List;
 @RequiredArgsConstructor
 public class FilmController {
 
-    private final FilmService service;
+    private static final int DEFAULT_PAGE_SIZE = 100;
 
+    private final FilmService service;
+    private final FilmImportService importService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/{id}")
     public Film getFilmById(@PathVariable Long id) {
@@ -28,9 +38,23 @@ public class FilmController {
     }
 
     @GetMapping
-    public Collection<Film> getAllFilms() {
-        log.info("Запрошен полный список фильмов.");
-        return service.getFilmList();
+    public Collection<Film> getAllFilms(@RequestParam(required = false) Long after,
+                                        @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            log.info("Запрошен полный список фильмов.");
+            return service.getFilmList();
+        }
+        log.info("Запрошена страница фильмов после id={} размером {}.", after, limit);
+        return service.getFilmPage(after == null ? 0 : after, limit == null ? DEFAULT_PAGE_SIZE : limit);
+    }
+
+    @GetMapping(produces = NdjsonWriter.MEDIA_TYPE)
+    public void streamAllFilms(@RequestParam(defaultValue = "0") long after,
+                               HttpServletResponse response) throws IOException {
+        log.info("Запрошена потоковая выгрузка фильмов после id={}.", after);
+        try (NdjsonWriter<Film> writer = new NdjsonWriter<>(objectMapper, response)) {
+            service.streamFilms(after, writer);
+        }
     }
 
     @PostMapping
@@ -39,6 +63,14 @@ public class FilmController {
         return service.addNewFilm(film);
     }
 
+    @PostMapping("/bulk")
+    public void importFilms(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.info("Запущен пакетный импорт фильмов.");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        importService.importFilms(request.getInputStream(), response.getOutputStream());
+    }
+
     @PutMapping
     public Film updateFilm(@Valid @RequestBody Film updatedFilm) throws ValidationException {
         log.info("Новая информация о фильме с идентификатором {} успешно добавлена.", updatedFilm.getId());
@@ -68,4 +100,11 @@ public class FilmController {
         log.info("Отображается список {} самых популярных фильмов.", count);
         return service.getTopRatedFilms(count);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/trending")
+    public List<Film> getTrendingFilms(@RequestParam(defaultValue = "24h") String window,
+                                       @RequestParam(defaultValue = "10") int count) {
+        log.info("Отображается список {} фильмов, набравших больше всего лайков за {}.", count, window);
+        return service.getTrendingFilms(window, count);
+    }
+}
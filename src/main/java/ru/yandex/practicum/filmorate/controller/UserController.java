@@ -1,13 +1,18 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.service.UserService;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
 
@@ -18,12 +23,30 @@ import java.util.List;
 @RequiredArgsConstructor
 public class UserController {
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
     private final UserService service;
+    private final FilmService filmService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
-    public Collection<User> getUserList() {
-        log.info("Запрошены все пользователи.");
-        return service.getUserList();
+    public Collection<User> getUserList(@RequestParam(required = false) Long after,
+                                        @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            log.info("Запрошены все пользователи.");
+            return service.getUserList();
+        }
+        log.info("Запрошена страница пользователей после id={} размером {}.", after, limit);
+        return service.getUserPage(after == null ? 0 : after, limit == null ? DEFAULT_PAGE_SIZE : limit);
+    }
+
+    @GetMapping(produces = NdjsonWriter.MEDIA_TYPE)
+    public void streamUserList(@RequestParam(defaultValue = "0") long after,
+                               HttpServletResponse response) throws IOException {
+        log.info("Запрошена потоковая выгрузка пользователей после id={}.", after);
+        try (NdjsonWriter<User> writer = new NdjsonWriter<>(objectMapper, response)) {
+            service.streamUsers(after, writer);
+        }
     }
 
     @GetMapping("/{id}")
@@ -68,9 +91,21 @@ public class UserController {
         return service.getUserFriendList(id);
     }
 
+    @GetMapping("/{id}/friends/suggestions")
+    public List<User> getFriendSuggestions(@PathVariable Long id, @RequestParam(defaultValue = "10") int count) {
+        log.info("Отображается список из {} рекомендуемых друзей пользователя с id={}", count, id);
+        return service.getFriendSuggestions(id, count);
+    }
+
     @GetMapping("/{id}/friends/common/{otherId}")
     public List<User> getGeneralFriendList(@PathVariable Long id, @PathVariable Long otherId) {
         log.info("Отображается список общих друзей пользователей с id={} и id={}", id, otherId);
         return service.getGeneralFriendList(id, otherId);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/{id}/recommendations")
+    public List<Film> getRecommendations(@PathVariable Long id, @RequestParam(defaultValue = "10") int count) {
+        log.info("Отображается список из {} рекомендуемых фильмов для пользователя с id={}", count, id);
+        return filmService.getRecommendations(id, count);
+    }
+}
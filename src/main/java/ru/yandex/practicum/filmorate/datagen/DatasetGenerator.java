@@ -0,0 +1,221 @@
+package ru.yandex.practicum.filmorate.datagen;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+@Slf4j
+public class DatasetGenerator {
+
+    private static final String MAX_USER_ID_SQL = "SELECT COALESCE(MAX(user_id), 0) FROM users";
+    private static final String MAX_FILM_ID_SQL = "SELECT COALESCE(MAX(film_id), 0) FROM films";
+    private static final String GENRE_IDS_SQL = "SELECT genre_id FROM genre ORDER BY genre_id";
+    private static final String RATING_IDS_SQL = "SELECT rating_id FROM rating ORDER BY rating_id";
+
+    private static final String INSERT_USER_SQL = """
+        INSERT INTO users (user_id, login, email, name, birthday)
+        VALUES (?, ?, ?, ?, ?)
+        """;
+
+    private static final String INSERT_FILM_SQL = """
+        INSERT INTO films (film_id, title, description, release_date, duration_min, rating_id)
+        VALUES (?, ?, ?, ?, ?, ?)
+        """;
+
+    private static final String INSERT_FILM_GENRE_SQL = """
+        INSERT INTO film_genre (film_id, genre_id)
+        VALUES (?, ?)
+        """;
+
+    private static final String INSERT_LIKE_SQL = """
+        INSERT INTO likes (film_id, user_id)
+        VALUES (?, ?)
+        """;
+
+    private static final String MERGE_FRIENDSHIP_SQL = """
+        MERGE INTO friendship (initiator_user_id, friend_user_id, confirmed)
+        KEY (initiator_user_id, friend_user_id)
+        VALUES (?, ?, FALSE)
+        """;
+
+    private static final String COUNT_FRIENDSHIPS_SQL = """
+        SELECT COUNT(*)
+        FROM friendship
+        WHERE initiator_user_id >= ? AND friend_user_id >= ?
+        """;
+
+    private static final String RECOUNT_LIKES_SQL = """
+        UPDATE films f
+        SET like_count = (SELECT COUNT(*) FROM likes l WHERE l.film_id = f.film_id)
+        WHERE f.film_id >= ?
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatasetProperties properties;
+    private final Random random;
+
+    public DatasetGenerator(JdbcTemplate jdbcTemplate, DatasetProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.random = new Random(properties.getSeed());
+    }
+
+    public DatasetReport generate() {
+        long start = System.currentTimeMillis();
+        long firstUserId = jdbcTemplate.queryForObject(MAX_USER_ID_SQL, Long.class) + 1;
+        long firstFilmId = jdbcTemplate.queryForObject(MAX_FILM_ID_SQL, Long.class) + 1;
+        int users = properties.getUsers();
+        int films = properties.getFilms();
+
+        insertUsers(firstUserId, users);
+        long filmGenres = insertFilms(firstFilmId, films);
+        long likes = insertLikes(firstUserId, users, firstFilmId, films);
+        long friendships = insertFriendships(firstUserId, users);
+
+        jdbcTemplate.update(RECOUNT_LIKES_SQL, firstFilmId);
+        jdbcTemplate.execute("ALTER TABLE users ALTER COLUMN user_id RESTART WITH " + (firstUserId + users));
+        jdbcTemplate.execute("ALTER TABLE films ALTER COLUMN film_id RESTART WITH " + (firstFilmId + films));
+
+        return new DatasetReport(firstUserId, users, firstFilmId, films, filmGenres, likes, friendships,
+                System.currentTimeMillis() - start);
+    }
+
+    private void insertUsers(long firstUserId, int users) {
+        Batch batch = new Batch(INSERT_USER_SQL);
+        for (long id = firstUserId; id < firstUserId + users; id++) {
+            LocalDate birthday = LocalDate.of(1950, 1, 1).plusDays(random.nextInt(365 * 55));
+            batch.add(id, "gen_user" + id, "gen_user" + id + "@mail.ru", "Пользователь " + id, Date.valueOf(birthday));
+        }
+        batch.flush();
+        log.debug("Сгенерировано пользователей: {}", users);
+    }
+
+    private long insertFilms(long firstFilmId, int films) {
+        List<Integer> genreIds = jdbcTemplate.queryForList(GENRE_IDS_SQL, Integer.class);
+        List<Integer> ratingIds = jdbcTemplate.queryForList(RATING_IDS_SQL, Integer.class);
+        Batch filmBatch = new Batch(INSERT_FILM_SQL);
+        Batch genreBatch = new Batch(INSERT_FILM_GENRE_SQL, filmBatch);
+        long filmGenres = 0;
+
+        for (long id = firstFilmId; id < firstFilmId + films; id++) {
+            LocalDate releaseDate = LocalDate.of(1930, 1, 1).plusDays(random.nextInt(365 * 95));
+            filmBatch.add(id, "Фильм " + id, "Описание фильма " + id, Date.valueOf(releaseDate),
+                    60 + random.nextInt(120), ratingIds.get(random.nextInt(ratingIds.size())));
+
+            int genreCount = random.nextInt(Math.min(properties.getMaxGenresPerFilm(), genreIds.size()) + 1);
+            int offset = random.nextInt(genreIds.size());
+            for (int i = 0; i < genreCount; i++) {
+                genreBatch.add(id, genreIds.get((offset + i) % genreIds.size()));
+            }
+            filmGenres += genreCount;
+        }
+        filmBatch.flush();
+        genreBatch.flush();
+        log.debug("Сгенерировано фильмов: {}, связей с жанрами: {}", films, filmGenres);
+        return filmGenres;
+    }
+
+    private long insertLikes(long firstUserId, int users, long firstFilmId, int films) {
+        Batch batch = new Batch(INSERT_LIKE_SQL);
+        Set<Long> liked = new HashSet<>();
+        int maxLikes = Math.min(properties.getMaxLikesPerUser(), films);
+
+        for (long userId = firstUserId; userId < firstUserId + users; userId++) {
+            int count = sampleDegree(maxLikes);
+            liked.clear();
+            for (int attempt = 0; liked.size() < count && attempt < count * 4; attempt++) {
+                long filmId = firstFilmId + sampleRank(films);
+                if (liked.add(filmId)) {
+                    batch.add(filmId, userId);
+                }
+            }
+        }
+        batch.flush();
+        log.debug("Сгенерировано лайков: {}", batch.rows);
+        return batch.rows;
+    }
+
+    private long insertFriendships(long firstUserId, int users) {
+        Batch batch = new Batch(MERGE_FRIENDSHIP_SQL);
+        Set<Long> friends = new HashSet<>();
+        int maxFriends = Math.min(properties.getMaxFriendsPerUser(), users - 1);
+
+        for (long userId = firstUserId; userId < firstUserId + users; userId++) {
+            int count = sampleDegree(maxFriends);
+            friends.clear();
+            for (int attempt = 0; friends.size() < count && attempt < count * 4; attempt++) {
+                long friendId = firstUserId + sampleRank(users);
+                if (friendId == userId || !friends.add(friendId)) {
+                    continue;
+                }
+                if (((userId + friendId) % 2 == 0) == (userId < friendId)) {
+                    batch.add(userId, friendId);
+                } else {
+                    batch.add(friendId, userId);
+                }
+            }
+        }
+        batch.flush();
+        Long friendships = jdbcTemplate.queryForObject(COUNT_FRIENDSHIPS_SQL, Long.class, firstUserId, firstUserId);
+        log.debug("Сгенерировано заявок в друзья: {}", friendships);
+        return friendships;
+    }
+
+    private int sampleDegree(int max) {
+        if (max <= 0) {
+            return 0;
+        }
+        return (int) Math.min(max, Math.floor(boundedPareto(1, max + 1, properties.getDegreeSkew())));
+    }
+
+    private int sampleRank(int size) {
+        return (int) Math.min(size - 1, Math.floor(boundedPareto(1, size + 1, properties.getPopularitySkew())) - 1);
+    }
+
+    private double boundedPareto(double low, double high, double alpha) {
+        double u = random.nextDouble();
+        double ratio = Math.pow(low / high, alpha);
+        return low * Math.pow(1 - u * (1 - ratio), -1 / alpha);
+    }
+
+    private class Batch {
+        private final String sql;
+        private final Batch parent;
+        private final List<Object[]> pending = new ArrayList<>();
+        private long rows;
+
+        Batch(String sql) {
+            this(sql, null);
+        }
+
+        Batch(String sql, Batch parent) {
+            this.sql = sql;
+            this.parent = parent;
+        }
+
+        void add(Object... row) {
+            pending.add(row);
+            if (pending.size() >= properties.getBatchSize()) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (parent != null) {
+                parent.flush();
+            }
+            if (!pending.isEmpty()) {
+                jdbcTemplate.batchUpdate(sql, pending);
+                rows += pending.size();
+                pending.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package ru.yandex.practicum.filmorate.datagen;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.dao.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.dao.LikeDbStorage;
+import ru.yandex.practicum.filmorate.storage.dao.UserDbStorage;
+
+@Slf4j
+@Component
+@Profile("datagen")
+@EnableConfigurationProperties(DatasetProperties.class)
+public class DatasetGeneratorRunner implements ApplicationRunner {
+    private final JdbcTemplate jdbcTemplate;
+    private final DatasetProperties properties;
+    private final FilmDbStorage filmStorage;
+    private final UserDbStorage userStorage;
+    private final LikeDbStorage likeStorage;
+
+    public DatasetGeneratorRunner(JdbcTemplate jdbcTemplate, DatasetProperties properties,
+                                  FilmDbStorage filmStorage, UserDbStorage userStorage, LikeDbStorage likeStorage) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.likeStorage = likeStorage;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("Генерация тестовых данных: {}", properties);
+        DatasetReport report = new DatasetGenerator(jdbcTemplate, properties).generate();
+        filmStorage.loadPopularityIndex();
+        userStorage.loadFriendGraph();
+        likeStorage.loadIndexes();
+        log.info("Тестовые данные сгенерированы: {}", report);
+    }
+}
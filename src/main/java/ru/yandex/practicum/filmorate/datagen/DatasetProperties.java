@@ -0,0 +1,18 @@
+package ru.yandex.practicum.filmorate.datagen;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "filmorate.datagen")
+public class DatasetProperties {
+    private int users = 100_000;
+    private int films = 10_000;
+    private int maxLikesPerUser = 200;
+    private int maxFriendsPerUser = 500;
+    private int maxGenresPerFilm = 3;
+    private double degreeSkew = 1.5;
+    private double popularitySkew = 1.1;
+    private long seed = 42;
+    private int batchSize = 5_000;
+}
@@ -0,0 +1,5 @@
+package ru.yandex.practicum.filmorate.datagen;
+
+public record DatasetReport(long firstUserId, int users, long firstFilmId, int films,
+                            long filmGenres, long likes, long friendships, long elapsedMillis) {
+}
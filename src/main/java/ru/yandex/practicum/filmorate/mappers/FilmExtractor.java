@@ -0,0 +1,48 @@
+package ru.yandex.practicum.filmorate.mappers;
+
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class FilmExtractor implements ResultSetExtractor<List<Film>> {
+
+    private final RowMapper<Film> filmRowMapper;
+
+    public FilmExtractor(RowMapper<Film> filmRowMapper) {
+        this.filmRowMapper = filmRowMapper;
+    }
+
+    @Override
+    public List<Film> extractData(ResultSet rs) throws SQLException {
+        Map<Long, Film> films = new LinkedHashMap<>();
+        int rowNum = 0;
+        while (rs.next()) {
+            long filmId = rs.getLong("film_id");
+            Film film = films.get(filmId);
+            if (film == null) {
+                film = filmRowMapper.mapRow(rs, rowNum);
+                films.put(filmId, film);
+            }
+
+            int genreId = rs.getInt("genre_id");
+            if (!rs.wasNull()) {
+                Genre genre = new Genre();
+                genre.setId(genreId);
+                genre.setName(rs.getString("genre_name"));
+                film.getGenres().add(genre);
+            }
+            rowNum++;
+        }
+        return new ArrayList<>(films.values());
+    }
+}
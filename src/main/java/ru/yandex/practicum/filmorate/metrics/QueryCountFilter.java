@@ -0,0 +1,47 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+@Component
+public class QueryCountFilter extends OncePerRequestFilter {
+    private final MeterRegistry registry;
+
+    public QueryCountFilter(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestQueryCounter.Scope queries = RequestQueryCounter.open();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            queries.close();
+            Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder("filmorate.http.queries")
+                    .description("Количество SQL-запросов на один HTTP-запрос")
+                    .tags("method", request.getMethod(), "uri", route != null ? route.toString() : "UNKNOWN")
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(1.0)
+                    .maximumExpectedValue(256.0)
+                    .register(registry)
+                    .record(queries.queries());
+        }
+    }
+}
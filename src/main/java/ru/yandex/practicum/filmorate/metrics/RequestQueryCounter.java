@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class RequestQueryCounter {
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private RequestQueryCounter() {
+    }
+
+    public static Scope open() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    static void increment() {
+        for (Scope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.queries.incrementAndGet();
+        }
+    }
+
+    public static Runnable propagate(Runnable task) {
+        Scope scope = CURRENT.get();
+        if (scope == null) {
+            return task;
+        }
+        return () -> {
+            Scope previous = CURRENT.get();
+            CURRENT.set(scope);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    private static void restore(Scope scope) {
+        if (scope == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(scope);
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+        private final Scope parent;
+        private final AtomicInteger queries = new AtomicInteger();
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        public int queries() {
+            return queries.get();
+        }
+
+        @Override
+        public void close() {
+            restore(parent);
+        }
+    }
+}
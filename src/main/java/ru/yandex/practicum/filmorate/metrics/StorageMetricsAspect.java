@@ -0,0 +1,75 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Aspect
+@Component
+public class StorageMetricsAspect {
+    private final MeterRegistry registry;
+    private final Map<MeterKey, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<MeterKey, DistributionSummary> rowSummaries = new ConcurrentHashMap<>();
+
+    public StorageMetricsAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(* ru.yandex.practicum.filmorate.storage.film.FilmStorage.*(..))"
+            + " || execution(* ru.yandex.practicum.filmorate.storage.user.UserStorage.*(..))"
+            + " || execution(* ru.yandex.practicum.filmorate.storage.dao.LikeStorage.*(..))"
+            + " || execution(* ru.yandex.practicum.filmorate.storage.dao.GenreStorage.*(..))"
+            + " || execution(* ru.yandex.practicum.filmorate.storage.dao.RatingStorage.*(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String storage = joinPoint.getTarget().getClass().getSimpleName();
+        String method = joinPoint.getSignature().getName();
+        Timer.Sample sample = Timer.start(registry);
+        String exception = "none";
+        try {
+            Object result = joinPoint.proceed();
+            recordRows(storage, method, result);
+            return result;
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(timers.computeIfAbsent(new MeterKey(storage, method, exception), key ->
+                    Timer.builder("filmorate.storage")
+                            .description("Время выполнения методов хранилищ")
+                            .tags("storage", key.storage(), "method", key.method(), "exception", key.exception())
+                            .publishPercentileHistogram()
+                            .register(registry)));
+        }
+    }
+
+    private void recordRows(String storage, String method, Object result) {
+        int rows;
+        if (result instanceof Collection<?> collection) {
+            rows = collection.size();
+        } else if (result instanceof Map<?, ?> map) {
+            rows = map.size();
+        } else if (result instanceof Optional<?> optional) {
+            rows = optional.isPresent() ? 1 : 0;
+        } else {
+            return;
+        }
+        rowSummaries.computeIfAbsent(new MeterKey(storage, method, null), key ->
+                DistributionSummary.builder("filmorate.storage.rows")
+                        .description("Количество строк, возвращённых методом хранилища")
+                        .tags("storage", key.storage(), "method", key.method())
+                        .register(registry))
+                .record(rows);
+    }
+
+    private record MeterKey(String storage, String method, String exception) {
+    }
+}
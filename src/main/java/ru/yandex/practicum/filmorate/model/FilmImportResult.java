@@ -0,0 +1,22 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class FilmImportResult {
+    private int index;
+    private Long id;
+    private Status status;
+    private String error;
+
+    public enum Status {
+        CREATED,
+        REJECTED
+    }
+
+    public static FilmImportResult rejected(int index, String error) {
+        return new FilmImportResult(index, null, Status.REJECTED, error);
+    }
+}
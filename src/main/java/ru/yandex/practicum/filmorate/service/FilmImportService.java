@@ -0,0 +1,158 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.cache.CatalogVersion;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmImportResult;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class FilmImportService {
+
+    private final FilmService filmService;
+    private final FilmStorage filmStorage;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogVersion catalogVersion;
+    private final int batchSize;
+    private final int chunkSize;
+
+    public FilmImportService(FilmService filmService,
+                             @Qualifier("filmDbStorage") FilmStorage filmStorage,
+                             ObjectMapper objectMapper,
+                             Validator validator,
+                             TransactionTemplate transactionTemplate,
+                             CatalogVersion catalogVersion,
+                             @Value("${filmorate.import.batch-size:500}") int batchSize,
+                             @Value("${filmorate.import.chunk-size:5000}") int chunkSize) {
+        this.filmService = filmService;
+        this.filmStorage = filmStorage;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.catalogVersion = catalogVersion;
+        this.batchSize = batchSize;
+        this.chunkSize = chunkSize;
+    }
+
+    public void importFilms(InputStream in, OutputStream out) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(in);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartArray();
+
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                token = parser.nextToken();
+            }
+
+            Chunk chunk = new Chunk();
+            int index = 0;
+            int created = 0;
+            try {
+                while (token != null && token != JsonToken.END_ARRAY) {
+                    JsonNode node = parser.readValueAsTree();
+                    chunk.accept(index++, node);
+                    if (chunk.results.size() >= chunkSize) {
+                        created += flush(chunk, generator);
+                        chunk = new Chunk();
+                    }
+                    token = parser.nextToken();
+                }
+            } catch (JsonProcessingException e) {
+                log.error("Импорт фильмов прерван на элементе {}: {}", index, e.getMessage());
+                chunk.results.add(FilmImportResult.rejected(index, "Некорректный JSON: " + e.getOriginalMessage()));
+            }
+            created += flush(chunk, generator);
+
+            generator.writeEndArray();
+            log.info("Импорт фильмов завершён: обработано {}, создано {}.", index, created);
+        }
+    }
+
+    private int flush(Chunk chunk, JsonGenerator generator) throws IOException {
+        if (!chunk.films.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> filmStorage.addNewFilms(chunk.films, batchSize));
+                catalogVersion.bump();
+                for (int i = 0; i < chunk.films.size(); i++) {
+                    FilmImportResult result = chunk.created.get(i);
+                    result.setId(chunk.films.get(i).getId());
+                }
+            } catch (DataAccessException e) {
+                log.error("Не удалось сохранить пакет из {} фильмов: {}", chunk.films.size(), e.getMessage());
+                for (FilmImportResult result : chunk.created) {
+                    result.setStatus(FilmImportResult.Status.REJECTED);
+                    result.setError("Ошибка сохранения пакета фильмов.");
+                }
+            }
+        }
+
+        for (FilmImportResult result : chunk.results) {
+            generator.writeObject(result);
+        }
+        generator.flush();
+
+        return (int) chunk.created.stream()
+                .filter(result -> result.getStatus() == FilmImportResult.Status.CREATED)
+                .count();
+    }
+
+    private class Chunk {
+        private final List<Film> films = new ArrayList<>();
+        private final List<FilmImportResult> created = new ArrayList<>();
+        private final List<FilmImportResult> results = new ArrayList<>();
+
+        private void accept(int index, JsonNode node) {
+            try {
+                Film film = objectMapper.treeToValue(node, Film.class);
+                validate(film);
+                filmService.validateFilm(film);
+                filmService.resolveDictionaries(film);
+
+                FilmImportResult result = new FilmImportResult(index, null, FilmImportResult.Status.CREATED, null);
+                films.add(film);
+                created.add(result);
+                results.add(result);
+            } catch (ValidationException | NotFoundException e) {
+                results.add(FilmImportResult.rejected(index, e.getMessage()));
+            } catch (JsonProcessingException e) {
+                results.add(FilmImportResult.rejected(index, "Некорректные данные фильма: " + e.getOriginalMessage()));
+            }
+        }
+
+        private void validate(Film film) {
+            Set<ConstraintViolation<Film>> violations = validator.validate(film);
+            if (!violations.isEmpty()) {
+                throw new ValidationException(violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining(" ")));
+            }
+        }
+    }
+}
@@ -3,7 +3,10 @@ package ru.yandex.practicum.filmorate.service;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.cache.CatalogVersion;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
@@ -13,11 +16,16 @@ import ru.yandex.practicum.filmorate.storage.dao.GenreStorage;
 import ru.yandex.practicum.filmorate.storage.dao.LikeStorage;
 import ru.yandex.practicum.filmorate.storage.dao.RatingStorage;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.index.LikeMatrix;
+import ru.yandex.practicum.filmorate.storage.index.LongArrays;
+import ru.yandex.practicum.filmorate.storage.index.TrendingIndex;
 import ru.yandex.practicum.filmorate.exception.IllegalArgumentException;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -31,71 +39,60 @@ public class FilmService {
     private final LikeStorage likeStorage;
     private final GenreStorage genreStorage;
     private final RatingStorage ratingStorage;
+    private final CatalogVersion catalogVersion;
+    private final TrendingIndex trendingIndex;
+    private final LikeMatrix likeMatrix;
 
     @Autowired
     public FilmService(@Qualifier("filmDbStorage") FilmStorage filmStorage,
                        @Qualifier("userDbStorage") UserStorage userStorage,
                        LikeStorage likeStorage,
                        GenreStorage genreStorage,
-                       RatingStorage ratingDbStorage) {
+                       RatingStorage ratingDbStorage,
+                       CatalogVersion catalogVersion,
+                       TrendingIndex trendingIndex,
+                       LikeMatrix likeMatrix) {
         this.filmStorage = filmStorage;
         this.userStorage = userStorage;
         this.likeStorage = likeStorage;
         this.genreStorage = genreStorage;
         this.ratingStorage = ratingDbStorage;
+        this.catalogVersion = catalogVersion;
+        this.trendingIndex = trendingIndex;
+        this.likeMatrix = likeMatrix;
     }
 
     public Film findById(Long id) {
         return filmStorage.findById(id)
-                .map(this::enrichFilm)
                 .orElseThrow(() -> new NotFoundException("Фильм с id " + id + " не найден."));
     }
 
     public Collection<Film> getFilmList() {
-        Collection<Film> films = filmStorage.getFilmList();
-
-        Map<Long, Film> filmMap = films.stream()
-                .collect(Collectors.toMap(Film::getId, Function.identity()));
-        Set<Long> filmIds = filmMap.keySet();
-
-        Map<Long, Set<Genre>> genreMap = genreStorage.getGenresForFilms(filmIds, filmMap);
+        return filmStorage.getFilmList();
+    }
 
-        for (Film film : films) {
-            film.setGenres(genreMap.getOrDefault(film.getId(), new LinkedHashSet<>()));
-        }
+    public List<Film> getFilmPage(long afterId, int limit) {
+        PageLimits.validate(limit);
+        return filmStorage.getFilmPage(afterId, limit);
+    }
 
-        return films;
+    public void streamFilms(long afterId, Consumer<Film> consumer) {
+        filmStorage.streamFilms(afterId, consumer);
     }
 
     public Film addNewFilm(Film film) {
         validateFilm(film);
-
-        film.setMpa(getRatingOrThrow(film.getMpa().getId()));
-
-        if (film.getGenres() != null) {
-            Set<Genre> validatedGenres = film.getGenres().stream()
-                    .map(g -> getGenreOrThrow(g.getId()))
-                    .collect(Collectors.toCollection(LinkedHashSet::new));
-            film.setGenres(validatedGenres);
-        }
+        resolveDictionaries(film);
 
         Film saved = filmStorage.addNewFilm(film);
         film.setId(saved.getId());
-        filmStorage.saveGenres(film);
-        return findById(saved.getId());
+        catalogVersion.bump();
+        return film;
     }
 
     public Film updateFilmInfo(Film film) {
         validateFilm(film);
-
-        film.setMpa(getRatingOrThrow(film.getMpa().getId()));
-
-        if (film.getGenres() != null) {
-            Set<Genre> validatedGenres = film.getGenres().stream()
-                    .map(g -> getGenreOrThrow(g.getId()))
-                    .collect(Collectors.toCollection(LinkedHashSet::new));
-            film.setGenres(validatedGenres);
-        }
+        resolveDictionaries(film);
 
         Film updated = filmStorage.updateFilmInfo(film);
         if (updated == null) {
@@ -103,19 +100,39 @@ public class FilmService {
         }
 
         filmStorage.saveGenres(film);
-        return findById(film.getId());
+        catalogVersion.bump();
+        return film;
     }
 
     public void deleteFilm(Long id) {
-        if (filmStorage.findById(id).isEmpty()) {
-            throw new NotFoundException("Фильм с id " + id + " не найден.");
-        }
+        checkFilmExists(id);
         filmStorage.deleteFilm(id);
+        trendingIndex.removeFilm(id);
+        catalogVersion.bump();
     }
 
     public List<Film> getTopRatedFilms(int limit) {
-        List<Film> films = filmStorage.getTopRatedFilms(limit);
+        return withGenres(filmStorage.getTopRatedFilms(limit));
+    }
+
+    public List<Film> getTrendingFilms(String windowText, int limit) {
+        PageLimits.validate(limit);
+        Duration window = parseWindow(windowText);
+        if (!trendingIndex.supports(window)) {
+            throw new ValidationException("Окно " + window + " не поддерживается. Доступные окна: "
+                    + trendingIndex.supportedWindows());
+        }
+        return withGenres(filmStorage.findFilmsByIds(trendingIndex.top(window, limit)));
+    }
+
+    public List<Film> getRecommendations(Long userId, int limit) {
+        PageLimits.validate(limit);
+        checkUserExists(userId);
+        List<Long> filmIds = LongArrays.toList(likeMatrix.recommend(userId, limit));
+        return withGenres(filmStorage.findFilmsByIds(filmIds));
+    }
 
+    private List<Film> withGenres(List<Film> films) {
         Map<Long, Film> filmMap = films.stream()
                 .collect(Collectors.toMap(Film::getId, Function.identity()));
         Set<Long> filmIds = filmMap.keySet();
@@ -130,25 +147,64 @@ public class FilmService {
     }
 
     public void likeFilm(Long filmId, Long userId) {
-        findById(filmId);
-        userStorage.findUserById(userId);
-
-        if (likeStorage.hasLike(filmId, userId)) {
+        if (!changeLike(filmId, userId, true)) {
             throw new IllegalArgumentException("Вы уже поставили лайк фильму!");
         }
-
-        likeStorage.addLike(filmId, userId);
     }
 
     public void removeLike(Long filmId, Long userId) {
-        findById(filmId);
-        userStorage.findUserById(userId);
-
-        if (!likeStorage.hasLike(filmId, userId)) {
+        if (!changeLike(filmId, userId, false)) {
+            checkFilmExists(filmId);
+            checkUserExists(userId);
             throw new IllegalArgumentException("У вас нет лайка на этом фильме!");
         }
+    }
+
+    private boolean changeLike(Long filmId, Long userId, boolean liked) {
+        try {
+            boolean changed = liked ? likeStorage.addLike(filmId, userId) : likeStorage.removeLike(filmId, userId);
+            if (changed) {
+                if (liked) {
+                    trendingIndex.record(filmId, userId);
+                } else {
+                    trendingIndex.forget(filmId, userId);
+                }
+                catalogVersion.bump();
+            }
+            return changed;
+        } catch (DataIntegrityViolationException e) {
+            checkFilmExists(filmId);
+            checkUserExists(userId);
+            throw e;
+        }
+    }
+
+    private void checkFilmExists(Long id) {
+        if (filmStorage.isFilmNotExists(id)) {
+            throw new NotFoundException("Фильм с id " + id + " не найден.");
+        }
+    }
 
-        likeStorage.removeLike(filmId, userId);
+    private void checkUserExists(Long id) {
+        if (userStorage.isUserNotExists(id)) {
+            throw new NotFoundException("Пользователь с id = " + id + " не найден.");
+        }
+    }
+
+    void resolveDictionaries(Film film) {
+        if (film.getMpa() == null) {
+            throw new ValidationException("Рейтинг MPA фильма не указан!");
+        }
+        film.setMpa(getRatingOrThrow(film.getMpa().getId()));
+
+        Set<Genre> resolvedGenres = new LinkedHashSet<>();
+        if (film.getGenres() != null) {
+            film.getGenres().stream()
+                    .map(g -> getGenreOrThrow(g.getId()))
+                    .sorted(Comparator.comparingInt(Genre::getId))
+                    .forEach(resolvedGenres::add);
+        }
+        film.setGenres(resolvedGenres);
     }
 
     private MpaRating getRatingOrThrow(int id) {
@@ -161,20 +217,17 @@ public class FilmService {
                 .orElseThrow(() -> new NotFoundException("Жанр с id " + id + " не найден."));
     }
 
-    private void validateFilm(Film film) {
-        if (film.getReleaseDate() != null && film.getReleaseDate().isBefore(FIRST_FILM_RELEASE)) {
-            throw new ValidationException("Дата релиза фильма не может быть раньше 28 декабря 1895 года!");
+    private Duration parseWindow(String window) {
+        try {
+            return DurationStyle.detectAndParse(window);
+        } catch (java.lang.IllegalArgumentException e) {
+            throw new ValidationException("Некорректное окно трендов: " + window);
         }
     }
 
-    private Film enrichFilm(Film film) {
-        Set<Genre> genres = new LinkedHashSet<>(genreStorage.getGenresByFilmId(film.getId()));
-        film.setGenres(genres);
-        int ratingId = film.getMpa().getId();
-        MpaRating rating = ratingStorage.getRatingById(ratingId)
-                .orElseThrow(() -> new NotFoundException("Рейтинг с id " + ratingId + " не найден."));
-
-        film.setMpa(rating);
-        return film;
+    void validateFilm(Film film) {
+        if (film.getReleaseDate() != null && film.getReleaseDate().isBefore(FIRST_FILM_RELEASE)) {
+            throw new ValidationException("Дата релиза фильма не может быть раньше 28 декабря 1895 года!");
+        }
     }
 }
\ No newline at end of file
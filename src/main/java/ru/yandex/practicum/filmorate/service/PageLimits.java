@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.service;
+
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+final class PageLimits {
+
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private PageLimits() {
+    }
+
+    static void validate(int limit) {
+        if (limit <= 0) {
+            throw new ValidationException("Размер страницы должен быть положительным.");
+        }
+        if (limit > MAX_PAGE_SIZE) {
+            throw new ValidationException("Размер страницы не может превышать " + MAX_PAGE_SIZE + ".");
+        }
+    }
+}
@@ -10,6 +10,7 @@ import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
@@ -25,6 +26,15 @@ public class UserService {
         return storage.getUserList();
     }
 
+    public List<User> getUserPage(long afterId, int limit) {
+        PageLimits.validate(limit);
+        return storage.getUserPage(afterId, limit);
+    }
+
+    public void streamUsers(long afterId, Consumer<User> consumer) {
+        storage.streamUsers(afterId, consumer);
+    }
+
     public User getUserById(Long id) {
         return storage.findUserById(id)
                 .orElseThrow(() -> new NotFoundException("Пользователь с id = " + id + " не найден."));
@@ -51,9 +61,7 @@ public class UserService {
     }
 
     public void deleteUser(Long userId) {
-        if (storage.isUserNotExists(userId)) {
-            throw new NotFoundException("Пользователь с id = " + userId + " не найден.");
-        }
+        checkUserExists(userId);
         storage.deleteUser(userId);
     }
 
@@ -62,8 +70,8 @@ public class UserService {
             throw new ValidationException("Нельзя добавить самого себя в друзья.");
         }
 
-        getUserById(id);
-        getUserById(friendId);
+        checkUserExists(id);
+        checkUserExists(friendId);
 
         storage.addFriend(id, friendId);
     }
@@ -73,25 +81,47 @@ public class UserService {
             throw new ValidationException("Нельзя удалить самого себя из друзей.");
         }
 
-        getUserById(id);
-        getUserById(friendId);
+        checkUserExists(id);
+        checkUserExists(friendId);
 
         storage.deleteFriend(id, friendId);
     }
 
     public List<User> getUserFriendList(Long id) {
-        User user = getUserById(id);
-        return storage.findUsersByIds(user.getFriends());
+        checkUserExists(id);
+        return storage.findUsersByIds(storage.getFriendIds(id));
     }
 
     public List<User> getGeneralFriendList(Long id, Long otherId) {
-        User user1 = getUserById(id);
-        User user2 = getUserById(otherId);
+        storage.findMissingUserIds(List.of(id, otherId)).stream()
+                .findFirst()
+                .ifPresent(missingId -> {
+                    throw new NotFoundException("Пользователь с id = " + missingId + " не найден.");
+                });
+        return storage.findUsersByIds(storage.getCommonFriendIds(id, otherId));
+    }
 
-        Set<Long> common = new HashSet<>(user1.getFriends());
-        common.retainAll(user2.getFriends());
+    public List<User> getFriendSuggestions(Long id, int count) {
+        if (count <= 0) {
+            throw new ValidationException("Количество рекомендаций должно быть положительным.");
+        }
+        checkUserExists(id);
 
-        return storage.findUsersByIds(common);
+        List<Long> suggestionIds = storage.getFriendSuggestionIds(id, count);
+        Map<Long, User> users = new HashMap<>();
+        for (User user : storage.findUsersByIds(suggestionIds)) {
+            users.put(user.getId(), user);
+        }
+        return suggestionIds.stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private void checkUserExists(Long id) {
+        if (storage.isUserNotExists(id)) {
+            throw new NotFoundException("Пользователь с id = " + id + " не найден.");
+        }
     }
 
     private void validateUser(User user) {
@@ -0,0 +1,365 @@
+package ru.yandex.practicum.filmorate.storage.dao;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.cache.CatalogVersion;
+import ru.yandex.practicum.filmorate.config.StorageExecutorConfig;
+import ru.yandex.practicum.filmorate.storage.index.FilmPopularityIndex;
+import ru.yandex.practicum.filmorate.storage.index.LikeMatrix;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Primary
+@Repository
+@ConditionalOnProperty(name = "filmorate.likes.write-behind.enabled", havingValue = "true")
+public class BufferedLikeStorage implements LikeStorage, MeterBinder {
+
+    private static final String CHECK_LIKE_TARGETS_SQL = """
+        SELECT (SELECT COUNT(*) FROM films WHERE film_id = ?),
+               (SELECT COUNT(*) FROM users WHERE user_id = ?),
+               (SELECT COUNT(*) FROM likes WHERE film_id = ? AND user_id = ?)
+        """;
+
+    private static final String FLUSH_ADD_LIKE_SQL = """
+        INSERT INTO likes (film_id, user_id)
+        SELECT f.film_id, u.user_id
+        FROM films f, users u
+        WHERE f.film_id = ? AND u.user_id = ?
+          AND NOT EXISTS (SELECT 1 FROM likes l WHERE l.film_id = f.film_id AND l.user_id = u.user_id)
+        """;
+
+    private static final String FLUSH_REMOVE_LIKE_SQL = """
+        DELETE FROM likes
+        WHERE film_id = ? AND user_id = ?
+        """;
+
+    private static final String RECOUNT_LIKES_SQL = """
+        UPDATE films f
+        SET like_count = (SELECT COUNT(*) FROM likes l WHERE l.film_id = f.film_id)
+        WHERE f.film_id = ?
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LikeDbStorage delegate;
+    private final FilmPopularityIndex popularityIndex;
+    private final LikeMatrix likeMatrix;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogVersion catalogVersion;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final ScheduledExecutorService flusher;
+
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private volatile ConcurrentHashMap<LikeKey, Pending> pending = new ConcurrentHashMap<>();
+    private volatile Map<LikeKey, Pending> inFlight = Map.of();
+
+    private final AtomicLong acceptedEvents = new AtomicLong();
+    private final AtomicLong coalescedEvents = new AtomicLong();
+    private final AtomicLong flushedRows = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private final AtomicLong lastFlushNanos = new AtomicLong();
+
+    public BufferedLikeStorage(JdbcTemplate jdbcTemplate,
+                               LikeDbStorage delegate,
+                               FilmPopularityIndex popularityIndex,
+                               LikeMatrix likeMatrix,
+                               TransactionTemplate transactionTemplate,
+                               CatalogVersion catalogVersion,
+                               @Value("${filmorate.likes.write-behind.batch-size:1000}") int batchSize,
+                               @Value("${filmorate.likes.write-behind.flush-interval-ms:200}") long flushIntervalMs,
+                               @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.delegate = delegate;
+        this.popularityIndex = popularityIndex;
+        this.likeMatrix = likeMatrix;
+        this.transactionTemplate = transactionTemplate;
+        this.catalogVersion = catalogVersion;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(
+                StorageExecutorConfig.threadFactory("likes-flusher-", virtualThreads));
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean addLike(Long filmId, Long userId) {
+        return accept(new LikeKey(filmId, userId), true);
+    }
+
+    @Override
+    public boolean removeLike(Long filmId, Long userId) {
+        return accept(new LikeKey(filmId, userId), false);
+    }
+
+    @Override
+    public boolean hasLike(Long filmId, Long userId) {
+        LikeKey key = new LikeKey(filmId, userId);
+        Pending state = pending.get(key);
+        if (state == null) {
+            state = inFlight.get(key);
+        }
+        return state != null ? state.liked() : delegate.hasLike(filmId, userId);
+    }
+
+    @Override
+    public Set<Long> getLikesForFilm(Long filmId) {
+        Set<Long> likes = delegate.getLikesForFilm(filmId);
+        overlay(likes, inFlight, filmId);
+        overlay(likes, pending, filmId);
+        return likes;
+    }
+
+    public int getBufferDepth() {
+        return pending.size();
+    }
+
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    public long getFlushedRows() {
+        return flushedRows.get();
+    }
+
+    public double getLastFlushLatencyMillis() {
+        return lastFlushNanos.get() / 1_000_000.0;
+    }
+
+    public double getAverageFlushLatencyMillis() {
+        long flushes = flushCount.get();
+        return flushes == 0 ? 0 : totalFlushNanos.get() / 1_000_000.0 / flushes;
+    }
+
+    public double getCoalescingRatio() {
+        long accepted = acceptedEvents.get();
+        return accepted == 0 ? 0 : (double) coalescedEvents.get() / accepted;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("filmorate.likes.buffer.depth", this, BufferedLikeStorage::getBufferDepth)
+                .register(registry);
+        Gauge.builder("filmorate.likes.buffer.coalescing.ratio", this, BufferedLikeStorage::getCoalescingRatio)
+                .register(registry);
+        FunctionCounter.builder("filmorate.likes.buffer.flushed.rows", flushedRows, AtomicLong::get)
+                .register(registry);
+        FunctionTimer.builder("filmorate.likes.buffer.flush", this,
+                        storage -> storage.flushCount.get(),
+                        storage -> storage.totalFlushNanos.get(),
+                        TimeUnit.NANOSECONDS)
+                .register(registry);
+    }
+
+    public void flush() {
+        Map<LikeKey, Pending> batch;
+        swapLock.writeLock().lock();
+        try {
+            flushRequested.set(false);
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            inFlight = batch;
+            pending = new ConcurrentHashMap<>();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        long start = System.nanoTime();
+        int dropped;
+        try {
+            dropped = write(batch);
+        } catch (RuntimeException e) {
+            requeue(batch);
+            throw e;
+        } finally {
+            inFlight = Map.of();
+        }
+        catalogVersion.bump();
+        long elapsed = System.nanoTime() - start;
+
+        flushCount.incrementAndGet();
+        flushedRows.addAndGet(batch.size());
+        totalFlushNanos.addAndGet(elapsed);
+        lastFlushNanos.set(elapsed);
+        log.debug("Сброшено {} изменений лайков за {} мс, коэффициент схлопывания {}",
+                batch.size(), elapsed / 1_000_000.0, getCoalescingRatio());
+        if (dropped > 0) {
+            log.warn("При сбросе буфера пропущено {} лайков удалённых фильмов или пользователей.", dropped);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushSafely();
+    }
+
+    private boolean accept(LikeKey key, boolean liked) {
+        AtomicBoolean changed = new AtomicBoolean();
+        swapLock.readLock().lock();
+        try {
+            Pending existing = pending.get(key);
+            boolean persisted = existing != null ? existing.persisted() : persistedState(key);
+            pending.compute(key, (k, current) -> {
+                Pending state = current != null ? current : new Pending(persisted, false);
+                boolean wasLiked = current != null ? current.liked() : state.persisted();
+                if (wasLiked == liked) {
+                    return current;
+                }
+                changed.set(true);
+                if (liked == state.persisted()) {
+                    coalescedEvents.addAndGet(2);
+                    return null;
+                }
+                return new Pending(state.persisted(), liked);
+            });
+        } finally {
+            swapLock.readLock().unlock();
+        }
+
+        if (!changed.get()) {
+            return false;
+        }
+        acceptedEvents.incrementAndGet();
+        applyToIndexes(key, liked);
+        if (pending.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flushSafely);
+        }
+        return true;
+    }
+
+    private boolean persistedState(LikeKey key) {
+        Pending flushing = inFlight.get(key);
+        if (flushing != null) {
+            return flushing.liked();
+        }
+        return jdbcTemplate.queryForObject(CHECK_LIKE_TARGETS_SQL, (rs, rowNum) -> {
+            if (rs.getInt(1) == 0 || rs.getInt(2) == 0) {
+                throw new DataIntegrityViolationException(
+                        "Фильм " + key.filmId() + " или пользователь " + key.userId() + " не существует.");
+            }
+            return rs.getInt(3) > 0;
+        }, key.filmId(), key.userId(), key.filmId(), key.userId());
+    }
+
+    private int write(Map<LikeKey, Pending> batch) {
+        List<LikeKey> addedKeys = new ArrayList<>();
+        List<LikeKey> removedKeys = new ArrayList<>();
+        Set<Long> touchedFilms = new TreeSet<>();
+        batch.forEach((key, state) -> {
+            (state.liked() ? addedKeys : removedKeys).add(key);
+            touchedFilms.add(key.filmId());
+        });
+
+        int[] inserted = transactionTemplate.execute(status -> {
+            int[] rows = addedKeys.isEmpty() ? new int[0]
+                    : jdbcTemplate.batchUpdate(FLUSH_ADD_LIKE_SQL, toArgs(addedKeys));
+            if (!removedKeys.isEmpty()) {
+                jdbcTemplate.batchUpdate(FLUSH_REMOVE_LIKE_SQL, toArgs(removedKeys));
+            }
+            jdbcTemplate.batchUpdate(RECOUNT_LIKES_SQL,
+                    touchedFilms.stream().map(filmId -> new Object[]{filmId}).toList());
+            return rows;
+        });
+
+        int dropped = 0;
+        for (int i = 0; i < addedKeys.size(); i++) {
+            if (inserted[i] == 0) {
+                applyToIndexes(addedKeys.get(i), false);
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    private void applyToIndexes(LikeKey key, boolean liked) {
+        popularityIndex.adjust(key.filmId(), liked ? 1 : -1);
+        if (liked) {
+            likeMatrix.add(key.userId(), key.filmId());
+        } else {
+            likeMatrix.remove(key.userId(), key.filmId());
+        }
+    }
+
+    private static List<Object[]> toArgs(List<LikeKey> keys) {
+        return keys.stream().map(key -> new Object[]{key.filmId(), key.userId()}).toList();
+    }
+
+    private void requeue(Map<LikeKey, Pending> batch) {
+        swapLock.readLock().lock();
+        try {
+            batch.forEach((key, failed) -> pending.compute(key, (k, newer) -> {
+                if (newer == null) {
+                    return failed;
+                }
+                return newer.liked() == failed.persisted() ? null : new Pending(failed.persisted(), newer.liked());
+            }));
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Не удалось сбросить буфер лайков: {}", e.getMessage());
+        }
+    }
+
+    private static void overlay(Set<Long> likes, Map<LikeKey, Pending> buffer, Long filmId) {
+        buffer.forEach((key, state) -> {
+            if (key.filmId() == filmId) {
+                if (state.liked()) {
+                    likes.add(key.userId());
+                } else {
+                    likes.remove(key.userId());
+                }
+            }
+        });
+    }
+
+    private record LikeKey(long filmId, long userId) {
+    }
+
+    private record Pending(boolean persisted, boolean liked) {
+    }
+}
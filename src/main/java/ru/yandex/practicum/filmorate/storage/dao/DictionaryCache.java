@@ -0,0 +1,94 @@
+package ru.yandex.practicum.filmorate.storage.dao;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+final class DictionaryCache<T> {
+
+    private final Supplier<List<T>> loader;
+    private final ToIntFunction<T> idExtractor;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicReference<Generation<T>> generation = new AtomicReference<>(new Generation<>(null));
+
+    DictionaryCache(Supplier<List<T>> loader, ToIntFunction<T> idExtractor) {
+        this.loader = loader;
+        this.idExtractor = idExtractor;
+    }
+
+    List<T> values() {
+        return snapshot().values();
+    }
+
+    Optional<T> get(int id) {
+        Object[] byId = snapshot().byId();
+        if (id < 0 || id >= byId.length) {
+            return Optional.empty();
+        }
+        @SuppressWarnings("unchecked")
+        T value = (T) byId[id];
+        return Optional.ofNullable(value);
+    }
+
+    void preload() {
+        snapshot();
+    }
+
+    void invalidate() {
+        generation.set(new Generation<>(null));
+    }
+
+    long hits() {
+        return hits.get();
+    }
+
+    long misses() {
+        return misses.get();
+    }
+
+    void bindTo(MeterRegistry registry, String name) {
+        FunctionCounter.builder("filmorate.cache.requests", hits, AtomicLong::get)
+                .tags("cache", name, "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("filmorate.cache.requests", misses, AtomicLong::get)
+                .tags("cache", name, "result", "miss")
+                .register(registry);
+    }
+
+    private Snapshot<T> snapshot() {
+        Generation<T> current = generation.get();
+        if (current.snapshot() != null) {
+            hits.incrementAndGet();
+            return current.snapshot();
+        }
+        misses.incrementAndGet();
+        Snapshot<T> loaded = load();
+        generation.compareAndSet(current, new Generation<>(loaded));
+        return loaded;
+    }
+
+    private Snapshot<T> load() {
+        List<T> rows = List.copyOf(loader.get());
+        int maxId = rows.stream().mapToInt(idExtractor).max().orElse(-1);
+        Object[] byId = new Object[maxId + 1];
+        for (T row : rows) {
+            int id = idExtractor.applyAsInt(row);
+            if (id >= 0) {
+                byId[id] = row;
+            }
+        }
+        return new Snapshot<>(rows, byId);
+    }
+
+    private record Snapshot<T>(List<T> values, Object[] byId) {
+    }
+
+    private record Generation<T>(Snapshot<T> snapshot) {
+    }
+}
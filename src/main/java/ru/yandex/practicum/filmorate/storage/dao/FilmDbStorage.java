@@ -1,20 +1,40 @@
 package ru.yandex.practicum.filmorate.storage.dao;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.index.FilmPopularityIndex;
+import ru.yandex.practicum.filmorate.storage.index.LikeMatrix;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.*;
+import java.util.function.Consumer;
 
 @Slf4j
 @Repository("filmDbStorage")
-public class FilmDbStorage implements FilmStorage {
+public class FilmDbStorage implements FilmStorage, MeterBinder {
+
+    private static final String SQL_INSERT_FILM = """
+            INSERT INTO films (title, description, release_date, duration_min, rating_id) VALUES (?, ?, ?, ?, ?)
+            """;
 
     private static final String SQL_UPDATE_FILM = """
             UPDATE films SET title = ?, description = ?, release_date = ?, duration_min = ?, rating_id = ? WHERE film_id = ?
@@ -25,36 +45,67 @@ public class FilmDbStorage implements FilmStorage {
             """;
 
     private static final String SQL_FIND_FILM_BY_ID = """
-            SELECT f.*, r.mpa_rating
+            SELECT f.*, r.mpa_rating, g.genre_id, g.genre_name
             FROM films f
             JOIN rating r ON f.rating_id = r.rating_id
+            LEFT JOIN film_genre fg ON f.film_id = fg.film_id
+            LEFT JOIN genre g ON fg.genre_id = g.genre_id
             WHERE f.film_id = ?
+            ORDER BY g.genre_id
+            """;
+
+    private static final String SQL_CHECK_FILM_EXISTS = """
+            SELECT COUNT(*) FROM films WHERE film_id = ?
             """;
 
     private static final String SQL_GET_ALL_FILMS = """
-            SELECT f.*, r.mpa_rating
+            SELECT f.*, r.mpa_rating, g.genre_id, g.genre_name
+            FROM films f
+            JOIN rating r ON f.rating_id = r.rating_id
+            LEFT JOIN film_genre fg ON f.film_id = fg.film_id
+            LEFT JOIN genre g ON fg.genre_id = g.genre_id
+            ORDER BY f.film_id, g.genre_id
+            """;
+
+    private static final String SQL_GET_FILM_PAGE = """
+            SELECT f.*, r.mpa_rating, g.genre_id, g.genre_name
+            FROM (SELECT * FROM films WHERE film_id > ? ORDER BY film_id LIMIT ?) f
+            JOIN rating r ON f.rating_id = r.rating_id
+            LEFT JOIN film_genre fg ON f.film_id = fg.film_id
+            LEFT JOIN genre g ON fg.genre_id = g.genre_id
+            ORDER BY f.film_id, g.genre_id
+            """;
+
+    private static final String SQL_STREAM_FILMS = """
+            SELECT f.*, r.mpa_rating, g.genre_id, g.genre_name
             FROM films f
             JOIN rating r ON f.rating_id = r.rating_id
+            LEFT JOIN film_genre fg ON f.film_id = fg.film_id
+            LEFT JOIN genre g ON fg.genre_id = g.genre_id
+            WHERE f.film_id > ?
+            ORDER BY f.film_id, g.genre_id
             """;
 
-    private static final String SQL_GET_TOP_FILMS = """
-            SELECT f.film_id,
-                   f.title,
-                   f.description,
-                   f.release_date,
-                   f.duration_min,
-                   f.rating_id,
-                   r.mpa_rating
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private static final String SQL_GET_FILMS_BY_IDS_TEMPLATE = """
+            SELECT f.*, r.mpa_rating
             FROM films f
-            LEFT JOIN likes l ON f.film_id = l.film_id
-            LEFT JOIN rating r ON f.rating_id = r.rating_id
-            GROUP BY f.film_id, f.title, f.description, f.release_date, f.duration_min, f.rating_id, r.mpa_rating
-            ORDER BY COUNT(l.user_id) DESC, f.film_id ASC
-            LIMIT ?
+            JOIN rating r ON f.rating_id = r.rating_id
+            WHERE f.film_id IN (%s)
             """;
 
-    private static final String SQL_DELETE_FILM_GENRES = """
-            DELETE FROM film_genre WHERE film_id = ?
+    private static final String SQL_GET_LIKE_COUNTS = """
+            SELECT film_id, like_count
+            FROM films
+            """;
+
+    private static final String SQL_GET_FILM_GENRE_IDS = """
+            SELECT genre_id FROM film_genre WHERE film_id = ?
+            """;
+
+    private static final String SQL_DELETE_FILM_GENRE = """
+            DELETE FROM film_genre WHERE film_id = ? AND genre_id = ?
             """;
 
     private static final String SQL_INSERT_FILM_GENRE = """
@@ -63,18 +114,50 @@ public class FilmDbStorage implements FilmStorage {
 
     private final JdbcTemplate jdbcTemplate;
     private final RowMapper<Film>  filmRowMapper;
+    private final ResultSetExtractor<List<Film>> filmExtractor;
+    private final FilmPopularityIndex popularityIndex;
+    private final LikeMatrix likeMatrix;
+    private final MultiKeyLoader multiKeyLoader;
+    private final LikeStorage likeStorage;
+    private final SimpleJdbcInsert insertFilm;
+    private volatile DistributionSummary savedGenreStatements;
 
-    public FilmDbStorage(JdbcTemplate jdbcTemplate, RowMapper<Film> filmRowMapper) {
+    public FilmDbStorage(JdbcTemplate jdbcTemplate, RowMapper<Film> filmRowMapper,
+                         ResultSetExtractor<List<Film>> filmExtractor, FilmPopularityIndex popularityIndex,
+                         LikeMatrix likeMatrix, MultiKeyLoader multiKeyLoader, LikeStorage likeStorage) {
         this.jdbcTemplate = jdbcTemplate;
         this.filmRowMapper = filmRowMapper;
+        this.filmExtractor = filmExtractor;
+        this.popularityIndex = popularityIndex;
+        this.likeMatrix = likeMatrix;
+        this.multiKeyLoader = multiKeyLoader;
+        this.likeStorage = likeStorage;
+        this.insertFilm = new SimpleJdbcInsert(jdbcTemplate)
+                .withTableName("films")
+                .usingColumns("title", "description", "release_date", "duration_min", "rating_id")
+                .usingGeneratedKeyColumns("film_id");
+    }
+
+    @PostConstruct
+    public void loadPopularityIndex() {
+        Map<Long, Long> likeCounts = new HashMap<>();
+        jdbcTemplate.query(SQL_GET_LIKE_COUNTS, rs -> {
+            likeCounts.put(rs.getLong("film_id"), rs.getLong("like_count"));
+        });
+        popularityIndex.reset(likeCounts);
+        log.info("Индекс популярности загружен: {} фильмов.", likeCounts.size());
     }
 
     @Override
-    public Film addNewFilm(Film film) {
-        SimpleJdbcInsert insertFilm = new SimpleJdbcInsert(jdbcTemplate)
-                .withTableName("films")
-                .usingGeneratedKeyColumns("film_id");
+    public void bindTo(MeterRegistry registry) {
+        savedGenreStatements = DistributionSummary.builder("filmorate.film.genres.saved.statements")
+                .description("Запросы, сэкономленные одной записью жанров фильма")
+                .register(registry);
+    }
 
+    @Override
+    @Transactional
+    public Film addNewFilm(Film film) {
         Map<String, Object> params = Map.of(
                 "title", film.getName(),
                 "description", film.getDescription(),
@@ -85,9 +168,61 @@ public class FilmDbStorage implements FilmStorage {
 
         Number key = insertFilm.executeAndReturnKey(params);
         film.setId(key.longValue());
+
+        List<Object[]> genreRows = new ArrayList<>();
+        for (Integer genreId : genreIds(film)) {
+            genreRows.add(new Object[]{film.getId(), genreId});
+        }
+        if (!genreRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(SQL_INSERT_FILM_GENRE, genreRows);
+        }
+        registerAfterCommit(List.of(film.getId()));
         return film;
     }
 
+    @Override
+    public void addNewFilms(List<Film> films, int batchSize) {
+        for (int from = 0; from < films.size(); from += batchSize) {
+            List<Film> batch = films.subList(from, Math.min(from + batchSize, films.size()));
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+
+            jdbcTemplate.batchUpdate(
+                    con -> con.prepareStatement(SQL_INSERT_FILM, new String[]{"film_id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            Film film = batch.get(i);
+                            ps.setString(1, film.getName());
+                            ps.setString(2, film.getDescription());
+                            ps.setObject(3, film.getReleaseDate());
+                            ps.setInt(4, film.getDuration());
+                            ps.setInt(5, film.getMpa().getId());
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return batch.size();
+                        }
+                    },
+                    keyHolder);
+
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            List<Object[]> genreRows = new ArrayList<>();
+            for (int i = 0; i < batch.size(); i++) {
+                Film film = batch.get(i);
+                film.setId(((Number) keys.get(i).get("film_id")).longValue());
+                for (Genre genre : film.getGenres()) {
+                    genreRows.add(new Object[]{film.getId(), genre.getId()});
+                }
+            }
+
+            if (!genreRows.isEmpty()) {
+                jdbcTemplate.batchUpdate(SQL_INSERT_FILM_GENRE, genreRows);
+            }
+        }
+        registerAfterCommit(films.stream().map(Film::getId).toList());
+    }
+
     @Override
     public Film updateFilmInfo(Film film) {
         int updated = jdbcTemplate.update(SQL_UPDATE_FILM,
@@ -104,36 +239,164 @@ public class FilmDbStorage implements FilmStorage {
     @Override
     public void deleteFilm(Long id) {
         jdbcTemplate.update(SQL_DELETE_FILM, id);
+        popularityIndex.remove(id);
+        likeMatrix.removeFilm(id);
     }
 
     @Override
     public Optional<Film> findById(Long id) {
-        try {
-            Film film = jdbcTemplate.queryForObject(SQL_FIND_FILM_BY_ID, filmRowMapper, id);
-            return Optional.ofNullable(film);
-        } catch (EmptyResultDataAccessException e) {
+        List<Film> films = jdbcTemplate.query(SQL_FIND_FILM_BY_ID, filmExtractor, id);
+        if (films == null || films.isEmpty()) {
             return Optional.empty();
         }
+        return Optional.of(films.getFirst());
+    }
+
+    @Override
+    public boolean isFilmNotExists(Long id) {
+        Integer count = jdbcTemplate.queryForObject(SQL_CHECK_FILM_EXISTS, Integer.class, id);
+        return count == null || count <= 0;
     }
 
     @Override
     public List<Film> getFilmList() {
-        return jdbcTemplate.query(SQL_GET_ALL_FILMS, filmRowMapper);
+        return jdbcTemplate.query(SQL_GET_ALL_FILMS, filmExtractor);
+    }
+
+    @Override
+    public List<Film> getFilmPage(long afterId, int limit) {
+        return jdbcTemplate.query(SQL_GET_FILM_PAGE, filmExtractor, afterId, limit);
+    }
+
+    @Override
+    public void streamFilms(long afterId, Consumer<Film> consumer) {
+        Film[] current = new Film[1];
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL_STREAM_FILMS,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            ps.setLong(1, afterId);
+            return ps;
+        }, rs -> {
+            long filmId = rs.getLong("film_id");
+            if (current[0] == null || current[0].getId() != filmId) {
+                if (current[0] != null) {
+                    consumer.accept(current[0]);
+                }
+                current[0] = filmRowMapper.mapRow(rs, rs.getRow());
+            }
+            int genreId = rs.getInt("genre_id");
+            if (!rs.wasNull()) {
+                Genre genre = new Genre();
+                genre.setId(genreId);
+                genre.setName(rs.getString("genre_name"));
+                current[0].getGenres().add(genre);
+            }
+        });
+        if (current[0] != null) {
+            consumer.accept(current[0]);
+        }
     }
 
     @Override
     public List<Film> getTopRatedFilms(int limit) {
-        return jdbcTemplate.query(SQL_GET_TOP_FILMS, filmRowMapper, limit);
+        return findFilmsByIds(popularityIndex.top(limit));
     }
 
     @Override
-    public void saveGenres(Film film) {
-        jdbcTemplate.update(SQL_DELETE_FILM_GENRES, film.getId());
+    public List<Film> findFilmsByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, Film> films = new HashMap<>();
+        for (Film film : multiKeyLoader.load(SQL_GET_FILMS_BY_IDS_TEMPLATE, ids, filmRowMapper)) {
+            films.put(film.getId(), film);
+        }
 
-        if (film.getGenres() != null && !film.getGenres().isEmpty()) {
+        List<Film> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Film film = films.get(id);
+            if (film != null) {
+                result.add(film);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean addLike(long filmId, long userId) {
+        return likeStorage.addLike(filmId, userId);
+    }
+
+    @Override
+    public boolean removeLike(long filmId, long userId) {
+        return likeStorage.removeLike(filmId, userId);
+    }
+
+    @Override
+    @Transactional
+    public int saveGenres(Film film) {
+        Set<Integer> stored = new HashSet<>(
+                jdbcTemplate.queryForList(SQL_GET_FILM_GENRE_IDS, Integer.class, film.getId()));
+
+        Set<Integer> wanted = genreIds(film);
+
+        List<Object[]> removed = new ArrayList<>();
+        for (Integer genreId : stored) {
+            if (!wanted.contains(genreId)) {
+                removed.add(new Object[]{film.getId(), genreId});
+            }
+        }
+
+        List<Object[]> added = new ArrayList<>();
+        for (Integer genreId : wanted) {
+            if (!stored.contains(genreId)) {
+                added.add(new Object[]{film.getId(), genreId});
+            }
+        }
+
+        int statements = 1;
+        if (!removed.isEmpty()) {
+            jdbcTemplate.batchUpdate(SQL_DELETE_FILM_GENRE, removed);
+            statements++;
+        }
+        if (!added.isEmpty()) {
+            jdbcTemplate.batchUpdate(SQL_INSERT_FILM_GENRE, added);
+            statements++;
+        }
+
+        int baseline = 1 + wanted.size();
+        int saved = Math.max(0, baseline - statements);
+        DistributionSummary summary = savedGenreStatements;
+        if (summary != null) {
+            summary.record(saved);
+        }
+        log.debug("Жанры фильма {}: добавлено {}, удалено {}, выполнено запросов: {}, сэкономлено: {}.",
+                film.getId(), added.size(), removed.size(), statements, saved);
+        return saved;
+    }
+
+    private static Set<Integer> genreIds(Film film) {
+        Set<Integer> ids = new LinkedHashSet<>();
+        if (film.getGenres() != null) {
             for (Genre genre : film.getGenres()) {
-                jdbcTemplate.update(SQL_INSERT_FILM_GENRE, film.getId(), genre.getId());
+                ids.add(genre.getId());
             }
         }
+        return ids;
+    }
+
+    private void registerAfterCommit(List<Long> filmIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            filmIds.forEach(popularityIndex::register);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                filmIds.forEach(popularityIndex::register);
+            }
+        });
     }
 }
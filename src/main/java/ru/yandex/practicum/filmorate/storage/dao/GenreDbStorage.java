@@ -1,9 +1,12 @@
 package ru.yandex.practicum.filmorate.storage.dao;
 
-import org.springframework.dao.EmptyResultDataAccessException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.cache.CatalogVersion;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 
@@ -11,20 +14,18 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 @Repository
-public class GenreDbStorage implements GenreStorage {
+public class GenreDbStorage implements GenreStorage, MeterBinder {
 
     private final JdbcTemplate jdbcTemplate;
     private final RowMapper<Genre> genreRowMapper;
+    private final DictionaryCache<Genre> cache;
+    private final MultiKeyLoader multiKeyLoader;
+    private final CatalogVersion catalogVersion;
 
     private static final String GET_GENRE_LIST_SQL = """
             SELECT *
             FROM genre
-            """;
-
-    private static final String FIND_GENRE_BY_ID_SQL = """
-            SELECT *
-            FROM genre
-            WHERE genre_id = ?
+            ORDER BY genre_id
             """;
 
     private static final String GET_GENRES_BY_FILM_ID_SQL = """
@@ -39,26 +40,36 @@ public class GenreDbStorage implements GenreStorage {
             FROM film_genre fg
             JOIN genre g ON fg.genre_id = g.genre_id
             WHERE fg.film_id IN (%s)
+            ORDER BY fg.film_id, g.genre_id
             """;
 
-    public GenreDbStorage(JdbcTemplate jdbcTemplate, RowMapper<Genre> genreRowMapper) {
+    public GenreDbStorage(JdbcTemplate jdbcTemplate, RowMapper<Genre> genreRowMapper,
+                          MultiKeyLoader multiKeyLoader, CatalogVersion catalogVersion) {
         this.jdbcTemplate = jdbcTemplate;
         this.genreRowMapper = genreRowMapper;
+        this.multiKeyLoader = multiKeyLoader;
+        this.catalogVersion = catalogVersion;
+        this.cache = new DictionaryCache<>(this::loadGenres, Genre::getId);
+    }
+
+    @PostConstruct
+    public void preloadCache() {
+        cache.preload();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        cache.bindTo(registry, "genre");
     }
 
     @Override
     public Collection<Genre> getGenreList() {
-        return jdbcTemplate.query(GET_GENRE_LIST_SQL, genreRowMapper);
+        return cache.values();
     }
 
     @Override
     public Optional<Genre> findGenreById(int genreId) {
-        try {
-            Genre genre = jdbcTemplate.queryForObject(FIND_GENRE_BY_ID_SQL, genreRowMapper, genreId);
-            return Optional.ofNullable(genre);
-        } catch (EmptyResultDataAccessException e) {
-            return Optional.empty();
-        }
+        return cache.get(genreId);
     }
 
     @Override
@@ -67,22 +78,14 @@ public class GenreDbStorage implements GenreStorage {
             return Collections.emptyMap();
         }
 
-        String inSql = filmIds.stream()
-                .map(String::valueOf)
-                .collect(Collectors.joining(", "));
+        List<FilmGenreRow> rows = multiKeyLoader.load(GET_GENRES_FOR_FILMS_SQL_TEMPLATE, filmIds,
+                (rs, rowNum) -> new FilmGenreRow(rs.getLong("film_id"), genreRowMapper.mapRow(rs, rowNum)));
 
-        String finalSql = String.format(GET_GENRES_FOR_FILMS_SQL_TEMPLATE, inSql);
-
-        jdbcTemplate.query(finalSql, rs -> {
-            long filmId = rs.getLong("film_id");
-            Genre genre = new Genre();
-            genre.setId(rs.getInt("genre_id"));
-            genre.setName(rs.getString("genre_name"));
-
-            filmMap.computeIfAbsent(filmId, id -> new Film())
+        for (FilmGenreRow row : rows) {
+            filmMap.computeIfAbsent(row.filmId(), id -> new Film())
                     .getGenres()
-                    .add(genre);
-        });
+                    .add(row.genre());
+        }
 
         return filmMap.entrySet().stream()
                 .collect(Collectors.toMap(
@@ -97,4 +100,17 @@ public class GenreDbStorage implements GenreStorage {
     public List<Genre> getGenresByFilmId(Long filmId) {
         return jdbcTemplate.query(GET_GENRES_BY_FILM_ID_SQL, genreRowMapper, filmId);
     }
+
+    @Override
+    public void invalidateCache() {
+        cache.invalidate();
+        catalogVersion.bump();
+    }
+
+    private List<Genre> loadGenres() {
+        return jdbcTemplate.query(GET_GENRE_LIST_SQL, genreRowMapper);
+    }
+
+    private record FilmGenreRow(long filmId, Genre genre) {
+    }
 }
\ No newline at end of file
@@ -13,4 +13,6 @@ public interface GenreStorage {
     Map<Long, Set<Genre>> getGenresForFilms(Set<Long> filmIds, Map<Long, Film> filmMap);
 
     List<Genre> getGenresByFilmId(Long filmId);
+
+    void invalidateCache();
 }
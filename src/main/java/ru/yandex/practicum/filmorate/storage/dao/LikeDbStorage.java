@@ -1,15 +1,32 @@
 package ru.yandex.practicum.filmorate.storage.dao;
 
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.yandex.practicum.filmorate.storage.index.FilmPopularityIndex;
+import ru.yandex.practicum.filmorate.storage.index.LikeMatrix;
+import ru.yandex.practicum.filmorate.storage.index.TrendingIndex;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+@Slf4j
 @Repository
 public class LikeDbStorage implements LikeStorage {
 
     private final JdbcTemplate jdbcTemplate;
+    private final FilmPopularityIndex popularityIndex;
+    private final TrendingIndex trendingIndex;
+    private final LikeMatrix likeMatrix;
 
     private static final String ADD_LIKE_SQL = """
         INSERT INTO likes (film_id, user_id)
@@ -21,6 +38,12 @@ public class LikeDbStorage implements LikeStorage {
         WHERE film_id = ? AND user_id = ?
         """;
 
+    private static final String CHANGE_LIKE_COUNT_SQL = """
+        UPDATE films
+        SET like_count = like_count + ?
+        WHERE film_id = ?
+        """;
+
     private static final String HAS_LIKE_SQL = """
         SELECT COUNT(*)
         FROM likes
@@ -33,18 +56,86 @@ public class LikeDbStorage implements LikeStorage {
         WHERE film_id = ?
         """;
 
-    public LikeDbStorage(JdbcTemplate jdbcTemplate) {
+    private static final String GET_RECENT_LIKES_SQL = """
+        SELECT film_id, user_id, created_at
+        FROM likes
+        WHERE created_at >= DATEADD('HOUR', -?, CURRENT_TIMESTAMP)
+        """;
+
+    private static final String GET_ALL_LIKES_SQL = """
+        SELECT user_id, film_id
+        FROM likes
+        """;
+
+    public LikeDbStorage(JdbcTemplate jdbcTemplate, FilmPopularityIndex popularityIndex, TrendingIndex trendingIndex,
+                         LikeMatrix likeMatrix) {
         this.jdbcTemplate = jdbcTemplate;
+        this.popularityIndex = popularityIndex;
+        this.trendingIndex = trendingIndex;
+        this.likeMatrix = likeMatrix;
+    }
+
+    @PostConstruct
+    public void loadIndexes() {
+        loadTrendingIndex();
+        loadLikeMatrix();
+    }
+
+    public void loadLikeMatrix() {
+        Map<Long, List<Long>> likedFilms = new HashMap<>();
+        jdbcTemplate.query(GET_ALL_LIKES_SQL, rs -> {
+            likedFilms.computeIfAbsent(rs.getLong("user_id"), id -> new ArrayList<>())
+                    .add(rs.getLong("film_id"));
+        });
+
+        Map<Long, long[]> matrix = new HashMap<>();
+        likedFilms.forEach((userId, filmIds) ->
+                matrix.put(userId, filmIds.stream().mapToLong(Long::longValue).toArray()));
+        likeMatrix.reset(matrix);
+        log.info("Матрица лайков загружена: {} лайков, около {} КБ.", likeMatrix.likeCount(),
+                likeMatrix.estimatedBytes() / 1024);
+    }
+
+    public void loadTrendingIndex() {
+        trendingIndex.reset();
+        long[] loaded = new long[1];
+        jdbcTemplate.query(GET_RECENT_LIKES_SQL, rs -> {
+            trendingIndex.record(rs.getLong("film_id"), rs.getLong("user_id"),
+                    rs.getTimestamp("created_at").toInstant());
+            loaded[0]++;
+        }, trendingIndex.maxWindow().toHours());
+        log.info("Индекс трендов загружен: {} лайков за последние {} ч.", loaded[0], trendingIndex.maxWindow().toHours());
     }
 
     @Override
-    public void addLike(Long filmId, Long userId) {
-        jdbcTemplate.update(ADD_LIKE_SQL, filmId, userId);
+    @Transactional
+    public boolean addLike(Long filmId, Long userId) {
+        try {
+            jdbcTemplate.update(ADD_LIKE_SQL, filmId, userId);
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+        jdbcTemplate.update(CHANGE_LIKE_COUNT_SQL, 1, filmId);
+        runAfterCommit(() -> {
+            popularityIndex.adjust(filmId, 1);
+            likeMatrix.add(userId, filmId);
+        });
+        return true;
     }
 
     @Override
-    public void removeLike(Long filmId, Long userId) {
-        jdbcTemplate.update(REMOVE_LIKE_SQL, filmId, userId);
+    @Transactional
+    public boolean removeLike(Long filmId, Long userId) {
+        int removed = jdbcTemplate.update(REMOVE_LIKE_SQL, filmId, userId);
+        if (removed == 0) {
+            return false;
+        }
+        jdbcTemplate.update(CHANGE_LIKE_COUNT_SQL, -removed, filmId);
+        runAfterCommit(() -> {
+            popularityIndex.adjust(filmId, -removed);
+            likeMatrix.remove(userId, filmId);
+        });
+        return true;
     }
 
     @Override
@@ -57,4 +148,17 @@ public class LikeDbStorage implements LikeStorage {
     public Set<Long> getLikesForFilm(Long filmId) {
         return new HashSet<>(jdbcTemplate.queryForList(GET_LIKES_FOR_FILM_SQL, Long.class, filmId));
     }
-}
\ No newline at end of file
+
+    private void runAfterCommit(Runnable indexUpdate) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            indexUpdate.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                indexUpdate.run();
+            }
+        });
+    }
+}
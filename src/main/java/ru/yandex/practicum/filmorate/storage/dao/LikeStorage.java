@@ -3,9 +3,9 @@ package ru.yandex.practicum.filmorate.storage.dao;
 import java.util.Set;
 
 public interface LikeStorage {
-    void addLike(Long filmId, Long userId);
+    boolean addLike(Long filmId, Long userId);
 
-    void removeLike(Long filmId, Long userId);
+    boolean removeLike(Long filmId, Long userId);
 
     boolean hasLike(Long filmId, Long userId);
 
@@ -0,0 +1,99 @@
+package ru.yandex.practicum.filmorate.storage.dao;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+@Component
+public class MultiKeyLoader {
+
+    private static final int[] BUCKET_SIZES = {1, 8, 32, 128, 512};
+    private static final int MAX_CHUNK_SIZE = BUCKET_SIZES[BUCKET_SIZES.length - 1];
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ExecutorService executor;
+    private final Map<String, String[]> statements = new ConcurrentHashMap<>();
+
+    public MultiKeyLoader(JdbcTemplate jdbcTemplate, @Qualifier("storageExecutor") ExecutorService executor) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.executor = executor;
+    }
+
+    public <T> List<T> load(String sqlTemplate, Collection<Long> keys, RowMapper<T> rowMapper) {
+        if (keys.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Long[] distinct = new LinkedHashSet<>(keys).toArray(new Long[0]);
+        List<Long[]> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.length; from += MAX_CHUNK_SIZE) {
+            chunks.add(Arrays.copyOfRange(distinct, from, Math.min(from + MAX_CHUNK_SIZE, distinct.length)));
+        }
+
+        if (chunks.size() == 1 || TransactionSynchronizationManager.isActualTransactionActive()) {
+            List<T> result = new ArrayList<>();
+            for (Long[] chunk : chunks) {
+                result.addAll(loadChunk(sqlTemplate, chunk, rowMapper));
+            }
+            return result;
+        }
+
+        List<Supplier<List<T>>> futures = chunks.stream()
+                .map(chunk -> fork(() -> loadChunk(sqlTemplate, chunk, rowMapper)))
+                .toList();
+        List<T> result = new ArrayList<>();
+        for (Supplier<List<T>> future : futures) {
+            result.addAll(future.get());
+        }
+        return result;
+    }
+
+    private <T> Supplier<T> fork(Supplier<T> query) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return query;
+        }
+        CompletableFuture<T> future = CompletableFuture.supplyAsync(query, executor);
+        return () -> {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        };
+    }
+
+    private <T> List<T> loadChunk(String sqlTemplate, Long[] chunk, RowMapper<T> rowMapper) {
+        int bucket = bucketIndex(chunk.length);
+        String sql = statements.computeIfAbsent(sqlTemplate, template -> new String[BUCKET_SIZES.length])[bucket];
+        if (sql == null) {
+            sql = String.format(sqlTemplate, String.join(",", Collections.nCopies(BUCKET_SIZES[bucket], "?")));
+            statements.get(sqlTemplate)[bucket] = sql;
+        }
+
+        Object[] args = new Object[BUCKET_SIZES[bucket]];
+        System.arraycopy(chunk, 0, args, 0, chunk.length);
+        Arrays.fill(args, chunk.length, args.length, chunk[chunk.length - 1]);
+        return jdbcTemplate.query(sql, rowMapper, args);
+    }
+
+    private static int bucketIndex(int size) {
+        for (int i = 0; i < BUCKET_SIZES.length; i++) {
+            if (size <= BUCKET_SIZES[i]) {
+                return i;
+            }
+        }
+        return BUCKET_SIZES.length - 1;
+    }
+}
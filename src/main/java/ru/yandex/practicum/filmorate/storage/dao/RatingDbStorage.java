@@ -1,48 +1,67 @@
 package ru.yandex.practicum.filmorate.storage.dao;
 
-import org.springframework.dao.EmptyResultDataAccessException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.cache.CatalogVersion;
 import ru.yandex.practicum.filmorate.model.MpaRating;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public class RatingDbStorage implements RatingStorage {
+public class RatingDbStorage implements RatingStorage, MeterBinder {
 
     private final JdbcTemplate jdbcTemplate;
     private final RowMapper<MpaRating> ratingRowMapper;
+    private final DictionaryCache<MpaRating> cache;
+    private final CatalogVersion catalogVersion;
 
     private static final String GET_RATING_LIST_SQL = """
         SELECT *
         FROM rating
+        ORDER BY rating_id
         """;
 
-    private static final String FIND_RATING_BY_ID_SQL = """
-        SELECT *
-        FROM rating
-        WHERE rating_id = ?
-        """;
-
-    public RatingDbStorage(JdbcTemplate jdbcTemplate, RowMapper<MpaRating> ratingRowMapper) {
+    public RatingDbStorage(JdbcTemplate jdbcTemplate, RowMapper<MpaRating> ratingRowMapper,
+                           CatalogVersion catalogVersion) {
         this.jdbcTemplate = jdbcTemplate;
         this.ratingRowMapper = ratingRowMapper;
+        this.catalogVersion = catalogVersion;
+        this.cache = new DictionaryCache<>(this::loadRatings, MpaRating::getId);
+    }
+
+    @PostConstruct
+    public void preloadCache() {
+        cache.preload();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        cache.bindTo(registry, "mpa");
     }
 
     @Override
     public Collection<MpaRating> getRatingList() {
-        return jdbcTemplate.query(GET_RATING_LIST_SQL, ratingRowMapper);
+        return cache.values();
     }
 
     @Override
     public Optional<MpaRating> getRatingById(int ratingId) {
-        try {
-            MpaRating rating = jdbcTemplate.queryForObject(FIND_RATING_BY_ID_SQL, ratingRowMapper, ratingId);
-            return Optional.ofNullable(rating);
-        } catch (EmptyResultDataAccessException e) {
-            return Optional.empty();
-        }
+        return cache.get(ratingId);
+    }
+
+    @Override
+    public void invalidateCache() {
+        cache.invalidate();
+        catalogVersion.bump();
+    }
+
+    private List<MpaRating> loadRatings() {
+        return jdbcTemplate.query(GET_RATING_LIST_SQL, ratingRowMapper);
     }
 }
\ No newline at end of file
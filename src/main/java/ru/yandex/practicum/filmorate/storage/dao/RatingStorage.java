@@ -9,4 +9,6 @@ public interface RatingStorage {
     Collection<MpaRating> getRatingList();
 
     Optional<MpaRating> getRatingById(int ratingId);
+
+    void invalidateCache();
 }
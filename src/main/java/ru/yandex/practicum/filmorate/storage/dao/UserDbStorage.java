@@ -1,14 +1,21 @@
 package ru.yandex.practicum.filmorate.storage.dao;
 
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.index.FriendGraphIndex;
+import ru.yandex.practicum.filmorate.storage.index.LikeMatrix;
+import ru.yandex.practicum.filmorate.storage.index.LongArrays;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.util.*;
+import java.util.function.Consumer;
 
 @Slf4j
 @Repository("userDbStorage")
@@ -16,10 +23,22 @@ public class UserDbStorage implements UserStorage {
 
     private final JdbcTemplate jdbcTemplate;
     private final RowMapper<User> userRowMapper;
+    private final MultiKeyLoader multiKeyLoader;
+    private final FriendGraphIndex friendGraph;
+    private final LikeMatrix likeMatrix;
+    private final SimpleJdbcInsert insertUser;
 
-    public UserDbStorage(JdbcTemplate jdbcTemplate, RowMapper<User> userRowMapper) {
+    public UserDbStorage(JdbcTemplate jdbcTemplate, RowMapper<User> userRowMapper, MultiKeyLoader multiKeyLoader,
+                         FriendGraphIndex friendGraph, LikeMatrix likeMatrix) {
         this.jdbcTemplate = jdbcTemplate;
         this.userRowMapper = userRowMapper;
+        this.multiKeyLoader = multiKeyLoader;
+        this.friendGraph = friendGraph;
+        this.likeMatrix = likeMatrix;
+        this.insertUser = new SimpleJdbcInsert(jdbcTemplate)
+                .withTableName("users")
+                .usingColumns("login", "email", "name", "birthday")
+                .usingGeneratedKeyColumns("user_id");
     }
 
     private static final String GET_USER_SQL = """
@@ -33,6 +52,29 @@ public class UserDbStorage implements UserStorage {
         FROM users
         """;
 
+    private static final String GET_USER_PAGE_SQL = """
+        SELECT *
+        FROM users
+        WHERE user_id > ?
+        ORDER BY user_id
+        LIMIT ?
+        """;
+
+    private static final String STREAM_USERS_SQL = """
+        SELECT *
+        FROM users
+        WHERE user_id > ?
+        ORDER BY user_id
+        """;
+
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private static final String GET_USERS_BY_IDS_SQL_TEMPLATE = """
+        SELECT *
+        FROM users
+        WHERE user_id IN (%s)
+        """;
+
     private static final String UPDATE_USER_SQL = """
         UPDATE users
         SET email = ?, login = ?, name = ?, birthday = ?
@@ -44,16 +86,15 @@ public class UserDbStorage implements UserStorage {
         WHERE user_id = ?
         """;
 
-    private static final String LOAD_FRIENDS_SQL = """
-        SELECT friend_user_id
+    private static final String LOAD_FRIEND_GRAPH_SQL = """
+        SELECT initiator_user_id, friend_user_id
         FROM friendship
-        WHERE initiator_user_id = ?
         """;
 
-    private static final String LOAD_LIKES_SQL = """
-        SELECT film_id
-        FROM likes
-        WHERE user_id = ?
+    private static final String FIND_EXISTING_USER_IDS_SQL_TEMPLATE = """
+        SELECT user_id
+        FROM users
+        WHERE user_id IN (%s)
         """;
 
     private static final String CHECK_USER_EXISTS_SQL = """
@@ -91,15 +132,35 @@ public class UserDbStorage implements UserStorage {
         WHERE initiator_user_id = ? AND friend_user_id = ?
         """;
 
+    @PostConstruct
+    public void loadFriendGraph() {
+        Map<Long, List<Long>> friendLists = new HashMap<>();
+        jdbcTemplate.query(LOAD_FRIEND_GRAPH_SQL, rs -> {
+            friendLists.computeIfAbsent(rs.getLong("initiator_user_id"), id -> new ArrayList<>())
+                    .add(rs.getLong("friend_user_id"));
+        });
+
+        Map<Long, long[]> adjacency = new HashMap<>();
+        friendLists.forEach((userId, friendIds) ->
+                adjacency.put(userId, friendIds.stream().mapToLong(Long::longValue).toArray()));
+        friendGraph.reset(adjacency);
+        log.info("Граф дружбы загружен: {} пользователей с друзьями.", adjacency.size());
+    }
+
     @Override
     public Optional<User> findUserById(Long id) {
-        List<User> result = jdbcTemplate.query(GET_USER_SQL, userRowMapper, id);
-        if (result.isEmpty()) return Optional.empty();
+        Optional<User> header = findUserHeaderById(id);
+        header.ifPresent(user -> {
+            user.setFriends(loadFriends(id));
+            user.setLikedFilms(loadLikes(id));
+        });
+        return header;
+    }
 
-        User user = result.getFirst();
-        user.setFriends(loadFriends(id));
-        user.setLikedFilms(loadLikes(id));
-        return Optional.of(user);
+    @Override
+    public Optional<User> findUserHeaderById(Long id) {
+        List<User> result = jdbcTemplate.query(GET_USER_SQL, userRowMapper, id);
+        return result.isEmpty() ? Optional.empty() : Optional.of(result.getFirst());
     }
 
     @Override
@@ -108,11 +169,25 @@ public class UserDbStorage implements UserStorage {
     }
 
     @Override
-    public User addNewUser(User user) {
-        SimpleJdbcInsert insertUser = new SimpleJdbcInsert(jdbcTemplate)
-                .withTableName("users")
-                .usingGeneratedKeyColumns("user_id");
+    public List<User> getUserPage(long afterId, int limit) {
+        return jdbcTemplate.query(GET_USER_PAGE_SQL, userRowMapper, afterId, limit);
+    }
+
+    @Override
+    public void streamUsers(long afterId, Consumer<User> consumer) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(STREAM_USERS_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            ps.setLong(1, afterId);
+            return ps;
+        }, rs -> {
+            consumer.accept(userRowMapper.mapRow(rs, rs.getRow()));
+        });
+    }
 
+    @Override
+    public User addNewUser(User user) {
         Map<String, Object> parameters = new HashMap<>();
         parameters.put("login", user.getLogin());
         parameters.put("email", user.getEmail());
@@ -141,6 +216,8 @@ public class UserDbStorage implements UserStorage {
     @Override
     public void deleteUser(Long userId) {
         jdbcTemplate.update(DELETE_USER_SQL, userId);
+        friendGraph.removeUser(userId);
+        likeMatrix.removeUser(userId);
     }
 
     @Override
@@ -157,13 +234,32 @@ public class UserDbStorage implements UserStorage {
             );
         } else {
             jdbcTemplate.update(INSERT_FRIEND_REQUEST_SQL, userId, friendId);
+            friendGraph.add(userId, friendId);
         }
     }
 
     @Override
     public void deleteFriend(Long userId, Long friendId) {
-        jdbcTemplate.update(DELETE_FRIEND_SQL, userId, friendId);
+        int deleted = jdbcTemplate.update(DELETE_FRIEND_SQL, userId, friendId);
         jdbcTemplate.update(UPDATE_REVERSE_UNCONFIRMED_SQL, friendId, userId);
+        if (deleted > 0) {
+            friendGraph.remove(userId, friendId);
+        }
+    }
+
+    @Override
+    public List<Long> getFriendIds(Long userId) {
+        return LongArrays.toList(friendGraph.friendsOf(userId));
+    }
+
+    @Override
+    public List<Long> getCommonFriendIds(Long userId, Long otherId) {
+        return LongArrays.toList(friendGraph.commonFriends(userId, otherId));
+    }
+
+    @Override
+    public List<Long> getFriendSuggestionIds(Long userId, int limit) {
+        return LongArrays.toList(friendGraph.suggestFriends(userId, limit));
     }
 
     @Override
@@ -172,20 +268,30 @@ public class UserDbStorage implements UserStorage {
         return count <= 0;
     }
 
+    @Override
+    public List<Long> findMissingUserIds(Collection<Long> ids) {
+        Set<Long> existing = new HashSet<>(multiKeyLoader.load(FIND_EXISTING_USER_IDS_SQL_TEMPLATE, ids,
+                (rs, rowNum) -> rs.getLong("user_id")));
+        return ids.stream()
+                .filter(id -> !existing.contains(id))
+                .toList();
+    }
+
     private Set<Long> loadFriends(Long userId) {
-        return new HashSet<>(jdbcTemplate.queryForList(LOAD_FRIENDS_SQL, Long.class, userId));
+        return new HashSet<>(getFriendIds(userId));
     }
 
     private Set<Long> loadLikes(Long userId) {
-        return new HashSet<>(jdbcTemplate.queryForList(LOAD_LIKES_SQL, Long.class, userId));
+        long[] filmIds = likeMatrix.likesOf(userId);
+        Set<Long> likes = new HashSet<>(filmIds.length * 2);
+        for (long filmId : filmIds) {
+            likes.add(filmId);
+        }
+        return likes;
     }
 
     @Override
     public List<User> findUsersByIds(Collection<Long> ids) {
-        if (ids.isEmpty()) return List.of();
-
-        String inSql = String.join(",", Collections.nCopies(ids.size(), "?"));
-        String sql = "SELECT * FROM users WHERE user_id IN (" + inSql + ")";
-        return jdbcTemplate.query(sql, userRowMapper, ids.toArray());
+        return multiKeyLoader.load(GET_USERS_BY_IDS_SQL_TEMPLATE, ids, userRowMapper);
     }
 }
\ No newline at end of file
@@ -5,20 +5,35 @@ import ru.yandex.practicum.filmorate.model.Film;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface FilmStorage {
 
     Collection<Film> getFilmList();
 
+    List<Film> getFilmPage(long afterId, int limit);
+
+    void streamFilms(long afterId, Consumer<Film> consumer);
+
     Film addNewFilm(Film film);
 
+    void addNewFilms(List<Film> films, int batchSize);
+
     Film updateFilmInfo(Film updatedFilm);
 
     void deleteFilm(Long filmId);
 
     Optional<Film> findById(Long filmId);
 
+    boolean isFilmNotExists(Long filmId);
+
     List<Film> getTopRatedFilms(int limit);
 
-    void saveGenres(Film film);
+    List<Film> findFilmsByIds(List<Long> ids);
+
+    boolean addLike(long filmId, long userId);
+
+    boolean removeLike(long filmId, long userId);
+
+    int saveGenres(Film film);
 }
\ No newline at end of file
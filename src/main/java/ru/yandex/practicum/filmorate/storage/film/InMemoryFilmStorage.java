@@ -5,16 +5,33 @@ import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.index.FilmPopularityIndex;
+import ru.yandex.practicum.filmorate.storage.index.LongHashSet;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Component
 @Slf4j
 public class InMemoryFilmStorage implements FilmStorage {
 
-    private final Map<Long, Film> films = new HashMap<>();
+    private final Map<Long, Film> films = new ConcurrentHashMap<>();
+    private final Map<Long, LongHashSet> likes = new ConcurrentHashMap<>();
+    private final AtomicLong lastId = new AtomicLong();
+    private final FilmPopularityIndex popularityIndex;
 
+    public InMemoryFilmStorage() {
+        this(new FilmPopularityIndex());
+    }
+
+    public InMemoryFilmStorage(FilmPopularityIndex popularityIndex) {
+        this.popularityIndex = popularityIndex;
+    }
 
     @Override
     public Collection<Film> getFilmList() {
@@ -22,35 +39,78 @@ public class InMemoryFilmStorage implements FilmStorage {
         return films.values();
     }
 
+    @Override
+    public List<Film> getFilmPage(long afterId, int limit) {
+        return films.values().stream()
+                .filter(film -> film.getId() > afterId)
+                .sorted(Comparator.comparingLong(Film::getId))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void streamFilms(long afterId, Consumer<Film> consumer) {
+        films.values().stream()
+                .filter(film -> film.getId() > afterId)
+                .sorted(Comparator.comparingLong(Film::getId))
+                .forEach(consumer);
+    }
+
     @Override
     public Film addNewFilm(Film film) {
         validateFilm(film);
         film.setId(getNextId());
-        films.put(film.getId(), film);
+        Set<Long> initialLikes = film.getLikes() != null ? film.getLikes() : Set.of();
+        LongHashSet filmLikes = new LongHashSet(initialLikes.size());
+        initialLikes.forEach(filmLikes::add);
+        film.setLikes(likesView(filmLikes));
+        film.setGenres(film.getGenres() != null ? new LinkedHashSet<>(film.getGenres()) : new LinkedHashSet<>());
+        films.compute(film.getId(), (id, previous) -> {
+            likes.put(id, filmLikes);
+            popularityIndex.register(id);
+            popularityIndex.adjust(id, filmLikes.size());
+            return film;
+        });
         log.info("Создан новый фильм с идентификатором {}.", film.getId());
         return film;
     }
 
+    @Override
+    public void addNewFilms(List<Film> films, int batchSize) {
+        for (Film film : films) {
+            addNewFilm(film);
+        }
+    }
+
     @Override
     public Film updateFilmInfo(Film updatedFilm) {
-        if (!films.containsKey(updatedFilm.getId())) {
+        validateFilm(updatedFilm);
+        Film stored = films.computeIfPresent(updatedFilm.getId(), (id, oldFilm) -> {
+            Film film = copyOf(oldFilm);
+            film.updateFrom(updatedFilm);
+            return film;
+        });
+        if (stored == null) {
             log.error("При обновлении информации о фильме, фильм с id {} не найден.", updatedFilm.getId());
             throw new NotFoundException("Фильм с id = " + updatedFilm.getId() + " не найден");
         }
-        Film oldFilm = films.get(updatedFilm.getId());
-        validateFilm(updatedFilm);
-        oldFilm.updateFrom(updatedFilm);
         log.info("Информация о фильме с идентификатором {} успешно обновлена.", updatedFilm.getId());
-        return oldFilm;
+        return stored;
     }
 
     @Override
     public void deleteFilm(Long filmId) {
-        if (!films.containsKey(filmId)) {
+        AtomicBoolean removed = new AtomicBoolean();
+        films.computeIfPresent(filmId, (id, film) -> {
+            likes.remove(id);
+            popularityIndex.remove(id);
+            removed.set(true);
+            return null;
+        });
+        if (!removed.get()) {
             log.error("При удалении фильма, фильм с id {} не найден.", filmId);
             throw new NotFoundException("Фильм с id = " + filmId + " не найден");
         }
-        films.remove(filmId);
         log.info("Удаление фильма с идентификатором {}.", filmId);
     }
 
@@ -60,28 +120,72 @@ public class InMemoryFilmStorage implements FilmStorage {
         return Optional.ofNullable(film);
     }
 
+    @Override
+    public boolean isFilmNotExists(Long filmId) {
+        return !films.containsKey(filmId);
+    }
+
     @Override
     public List<Film> getTopRatedFilms(int limit) {
-        Collection<Film> allFilms = getFilmList();
         log.info("Получение списка из {} фильмов с наибольшим количеством лайков.", limit);
-        return allFilms.stream()
-                .sorted(Comparator.comparingInt((Film f) -> f.getLikes().size()).reversed())
-                .limit(limit)
+        return findFilmsByIds(popularityIndex.top(limit));
+    }
+
+    @Override
+    public List<Film> findFilmsByIds(List<Long> ids) {
+        return ids.stream()
+                .map(films::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
     @Override
-    public void saveGenres(Film film) {
-        Film storedFilm = films.get(film.getId());
-        if (storedFilm == null) {
-            throw new NotFoundException("Фильм с id = " + film.getId() + " не найден");
+    public boolean addLike(long filmId, long userId) {
+        AtomicBoolean added = new AtomicBoolean();
+        Film film = films.computeIfPresent(filmId, (id, stored) -> {
+            if (likes.get(id).add(userId)) {
+                popularityIndex.adjust(id, 1);
+                added.set(true);
+            }
+            return stored;
+        });
+        if (film == null) {
+            throw new NotFoundException("Фильм с id = " + filmId + " не найден");
         }
+        return added.get();
+    }
 
-        storedFilm.setGenres(film.getGenres() != null
+    @Override
+    public boolean removeLike(long filmId, long userId) {
+        AtomicBoolean removed = new AtomicBoolean();
+        Film film = films.computeIfPresent(filmId, (id, stored) -> {
+            if (likes.get(id).remove(userId)) {
+                popularityIndex.adjust(id, -1);
+                removed.set(true);
+            }
+            return stored;
+        });
+        if (film == null) {
+            throw new NotFoundException("Фильм с id = " + filmId + " не найден");
+        }
+        return removed.get();
+    }
+
+    @Override
+    public int saveGenres(Film film) {
+        Set<Genre> genres = film.getGenres() != null
                 ? new LinkedHashSet<>(film.getGenres())
-                : new LinkedHashSet<>());
+                : new LinkedHashSet<>();
+        Film storedFilm = films.computeIfPresent(film.getId(), (id, stored) -> {
+            stored.setGenres(genres);
+            return stored;
+        });
+        if (storedFilm == null) {
+            throw new NotFoundException("Фильм с id = " + film.getId() + " не найден");
+        }
 
         log.info("Жанры фильма с id {} успешно сохранены в памяти.", film.getId());
+        return 0;
     }
 
     private void validateFilm(Film film) {
@@ -91,11 +195,38 @@ public class InMemoryFilmStorage implements FilmStorage {
     }
 
     private long getNextId() {
-        long currentMaxId = films.keySet()
-                .stream()
-                .mapToLong(id -> id)
-                .max()
-                .orElse(0);
-        return ++currentMaxId;
+        return lastId.incrementAndGet();
+    }
+
+    private static Set<Long> likesView(LongHashSet filmLikes) {
+        return new AbstractSet<>() {
+            @Override
+            public boolean contains(Object userId) {
+                return userId instanceof Long id && filmLikes.contains(id);
+            }
+
+            @Override
+            public Iterator<Long> iterator() {
+                return Arrays.stream(filmLikes.toArray()).iterator();
+            }
+
+            @Override
+            public int size() {
+                return filmLikes.size();
+            }
+        };
+    }
+
+    private static Film copyOf(Film source) {
+        Film film = new Film();
+        film.setId(source.getId());
+        film.setName(source.getName());
+        film.setDescription(source.getDescription());
+        film.setReleaseDate(source.getReleaseDate());
+        film.setDuration(source.getDuration());
+        film.setMpa(source.getMpa());
+        film.setLikes(source.getLikes());
+        film.setGenres(source.getGenres());
+        return film;
     }
 }
\ No newline at end of file
@@ -0,0 +1,107 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+public class FilmPopularityIndex {
+
+    private static final Comparator<Entry> ORDER = Comparator.comparingLong(Entry::likes).reversed()
+            .thenComparingLong(Entry::filmId);
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final NavigableSet<Entry> ranking = new TreeSet<>(ORDER);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void reset(Map<Long, Long> likeCounts) {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            ranking.clear();
+            likeCounts.forEach(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void register(long filmId) {
+        lock.writeLock().lock();
+        try {
+            if (!entries.containsKey(filmId)) {
+                put(filmId, 0);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long filmId) {
+        lock.writeLock().lock();
+        try {
+            Entry old = entries.remove(filmId);
+            if (old != null) {
+                ranking.remove(old);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void adjust(long filmId, long delta) {
+        lock.writeLock().lock();
+        try {
+            Entry old = entries.get(filmId);
+            if (old == null) {
+                return;
+            }
+            ranking.remove(old);
+            put(filmId, Math.max(0, old.likes() + delta));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long getLikes(long filmId) {
+        lock.readLock().lock();
+        try {
+            Entry entry = entries.get(filmId);
+            return entry == null ? 0 : entry.likes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Long> top(int limit) {
+        lock.readLock().lock();
+        try {
+            List<Long> result = new ArrayList<>(Math.min(Math.max(limit, 0), ranking.size()));
+            Iterator<Entry> iterator = ranking.iterator();
+            while (result.size() < limit && iterator.hasNext()) {
+                result.add(iterator.next().filmId());
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(long filmId, long likes) {
+        Entry entry = new Entry(filmId, likes);
+        entries.put(filmId, entry);
+        ranking.add(entry);
+    }
+
+    private record Entry(long filmId, long likes) {
+    }
+}
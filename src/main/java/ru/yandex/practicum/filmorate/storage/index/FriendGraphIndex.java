@@ -0,0 +1,105 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class FriendGraphIndex {
+
+    private static final long[] EMPTY = new long[0];
+
+    private final Map<Long, long[]> friends = new ConcurrentHashMap<>();
+
+    public void reset(Map<Long, long[]> adjacency) {
+        friends.clear();
+        adjacency.forEach((userId, friendIds) -> {
+            long[] sorted = friendIds.clone();
+            Arrays.sort(sorted);
+            friends.put(userId, sorted);
+        });
+    }
+
+    public boolean add(long userId, long friendId) {
+        boolean[] added = new boolean[1];
+        friends.compute(userId, (id, current) -> {
+            long[] ids = current == null ? EMPTY : current;
+            int pos = Arrays.binarySearch(ids, friendId);
+            if (pos >= 0) {
+                return current;
+            }
+            int insertAt = -pos - 1;
+            long[] updated = new long[ids.length + 1];
+            System.arraycopy(ids, 0, updated, 0, insertAt);
+            updated[insertAt] = friendId;
+            System.arraycopy(ids, insertAt, updated, insertAt + 1, ids.length - insertAt);
+            added[0] = true;
+            return updated;
+        });
+        return added[0];
+    }
+
+    public boolean remove(long userId, long friendId) {
+        boolean[] removed = new boolean[1];
+        friends.computeIfPresent(userId, (id, ids) -> {
+            int pos = Arrays.binarySearch(ids, friendId);
+            if (pos < 0) {
+                return ids;
+            }
+            removed[0] = true;
+            if (ids.length == 1) {
+                return null;
+            }
+            long[] updated = new long[ids.length - 1];
+            System.arraycopy(ids, 0, updated, 0, pos);
+            System.arraycopy(ids, pos + 1, updated, pos, ids.length - pos - 1);
+            return updated;
+        });
+        return removed[0];
+    }
+
+    public void removeUser(long userId) {
+        friends.remove(userId);
+    }
+
+    public boolean contains(long userId, long friendId) {
+        return Arrays.binarySearch(friendsOf(userId), friendId) >= 0;
+    }
+
+    public long[] friendsOf(long userId) {
+        return friends.getOrDefault(userId, EMPTY);
+    }
+
+    public long[] commonFriends(long userId, long otherId) {
+        long[] first = friendsOf(userId);
+        long[] second = friendsOf(otherId);
+        long[] common = new long[Math.min(first.length, second.length)];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                common[size++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return size == common.length ? common : Arrays.copyOf(common, size);
+    }
+
+    public long[] suggestFriends(long userId, int limit) {
+        long[] direct = friendsOf(userId);
+        LongCounter mutualFriends = new LongCounter();
+        for (long friendId : direct) {
+            mutualFriends.addAll(friendsOf(friendId));
+        }
+        return mutualFriends.top(limit,
+                candidate -> candidate == userId || Arrays.binarySearch(direct, candidate) >= 0);
+    }
+}
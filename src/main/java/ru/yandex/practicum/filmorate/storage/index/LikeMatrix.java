@@ -0,0 +1,165 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.LongStream;
+
+@Component
+public class LikeMatrix {
+
+    private static final long[] EMPTY = new long[0];
+    private static final int PARALLEL_THRESHOLD = 64;
+    private static final long ARRAY_HEADER_BYTES = 16;
+    private static final long ENTRY_OVERHEAD_BYTES = 64;
+
+    private final Map<Long, long[]> filmsByUser = new ConcurrentHashMap<>();
+    private final Map<Long, LongHashSet> usersByFilm = new ConcurrentHashMap<>();
+    private final int neighbours;
+
+    public LikeMatrix(@Value("${filmorate.recommendations.neighbours:20}") int neighbours) {
+        this.neighbours = neighbours;
+    }
+
+    public void reset(Map<Long, long[]> likedFilms) {
+        filmsByUser.clear();
+        usersByFilm.clear();
+        Map<Long, LongStream.Builder> likers = new HashMap<>();
+        likedFilms.forEach((userId, filmIds) -> {
+            long[] sorted = filmIds.clone();
+            Arrays.sort(sorted);
+            filmsByUser.put(userId, sorted);
+            for (long filmId : sorted) {
+                likers.computeIfAbsent(filmId, id -> LongStream.builder()).add(userId);
+            }
+        });
+        likers.forEach((filmId, builder) -> {
+            long[] userIds = builder.build().toArray();
+            LongHashSet set = new LongHashSet(userIds.length);
+            for (long userId : userIds) {
+                set.add(userId);
+            }
+            usersByFilm.put(filmId, set);
+        });
+    }
+
+    public void add(long userId, long filmId) {
+        filmsByUser.compute(userId, (id, filmIds) -> insert(filmIds, filmId));
+        usersByFilm.compute(filmId, (id, userIds) -> {
+            LongHashSet likers = userIds != null ? userIds : new LongHashSet(1);
+            likers.add(userId);
+            return likers;
+        });
+    }
+
+    public void remove(long userId, long filmId) {
+        filmsByUser.computeIfPresent(userId, (id, filmIds) -> delete(filmIds, filmId));
+        usersByFilm.computeIfPresent(filmId, (id, userIds) -> without(userIds, userId));
+    }
+
+    public void removeFilm(long filmId) {
+        LongHashSet userIds = usersByFilm.remove(filmId);
+        if (userIds != null) {
+            for (long userId : userIds.toArray()) {
+                filmsByUser.computeIfPresent(userId, (id, filmIds) -> delete(filmIds, filmId));
+            }
+        }
+    }
+
+    public void removeUser(long userId) {
+        long[] filmIds = filmsByUser.remove(userId);
+        if (filmIds != null) {
+            for (long filmId : filmIds) {
+                usersByFilm.computeIfPresent(filmId, (id, userIds) -> without(userIds, userId));
+            }
+        }
+    }
+
+    public long[] likesOf(long userId) {
+        return filmsByUser.getOrDefault(userId, EMPTY);
+    }
+
+    public long[] recommend(long userId, int limit) {
+        long[] liked = likesOf(userId);
+        if (liked.length == 0 || limit <= 0) {
+            return EMPTY;
+        }
+
+        LongStream films = Arrays.stream(liked);
+        if (liked.length >= PARALLEL_THRESHOLD) {
+            films = films.parallel();
+        }
+        LongCounter overlap = films.collect(LongCounter::new,
+                (counter, filmId) -> counter.addAll(likersOf(filmId)),
+                LongCounter::merge);
+
+        LongCounter scores = new LongCounter();
+        for (long neighbour : overlap.top(neighbours, candidate -> candidate == userId)) {
+            int weight = overlap.get(neighbour);
+            for (long filmId : likesOf(neighbour)) {
+                scores.add(filmId, weight);
+            }
+        }
+        return scores.top(limit, filmId -> Arrays.binarySearch(liked, filmId) >= 0);
+    }
+
+    public long likeCount() {
+        return filmsByUser.values().stream()
+                .mapToLong(filmIds -> filmIds.length)
+                .sum();
+    }
+
+    public long estimatedBytes() {
+        long byUser = filmsByUser.values().stream()
+                .mapToLong(ids -> ENTRY_OVERHEAD_BYTES + ARRAY_HEADER_BYTES + 8L * ids.length)
+                .sum();
+        long byFilm = usersByFilm.values().stream()
+                .mapToLong(ids -> ENTRY_OVERHEAD_BYTES + ARRAY_HEADER_BYTES + ids.estimatedBytes())
+                .sum();
+        return byUser + byFilm;
+    }
+
+    private long[] likersOf(long filmId) {
+        LongHashSet userIds = usersByFilm.get(filmId);
+        return userIds != null ? userIds.toArray() : EMPTY;
+    }
+
+    private static LongHashSet without(LongHashSet userIds, long userId) {
+        userIds.remove(userId);
+        return userIds.size() == 0 ? null : userIds;
+    }
+
+    private static long[] insert(long[] ids, long id) {
+        if (ids == null) {
+            return new long[]{id};
+        }
+        int pos = Arrays.binarySearch(ids, id);
+        if (pos >= 0) {
+            return ids;
+        }
+        int insertAt = -pos - 1;
+        long[] updated = new long[ids.length + 1];
+        System.arraycopy(ids, 0, updated, 0, insertAt);
+        updated[insertAt] = id;
+        System.arraycopy(ids, insertAt, updated, insertAt + 1, ids.length - insertAt);
+        return updated;
+    }
+
+    private static long[] delete(long[] ids, long id) {
+        int pos = Arrays.binarySearch(ids, id);
+        if (pos < 0) {
+            return ids;
+        }
+        if (ids.length == 1) {
+            return null;
+        }
+        long[] updated = new long[ids.length - 1];
+        System.arraycopy(ids, 0, updated, 0, pos);
+        System.arraycopy(ids, pos + 1, updated, pos, ids.length - pos - 1);
+        return updated;
+    }
+}
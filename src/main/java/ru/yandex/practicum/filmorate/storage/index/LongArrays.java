@@ -0,0 +1,14 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import java.util.Arrays;
+import java.util.List;
+
+public final class LongArrays {
+
+    private LongArrays() {
+    }
+
+    public static List<Long> toList(long[] ids) {
+        return Arrays.stream(ids).boxed().toList();
+    }
+}
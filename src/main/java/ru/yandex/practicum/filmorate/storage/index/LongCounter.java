@@ -0,0 +1,93 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.function.LongPredicate;
+
+final class LongCounter {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private int[] counts = new int[INITIAL_CAPACITY];
+    private int shift = 64 - Integer.numberOfTrailingZeros(INITIAL_CAPACITY);
+    private int size;
+
+    void add(long key, int delta) {
+        if (size * 2 >= keys.length) {
+            grow();
+        }
+        int slot = find(key);
+        if (counts[slot] == 0) {
+            keys[slot] = key;
+            size++;
+        }
+        counts[slot] += delta;
+    }
+
+    void addAll(long[] keys) {
+        for (long key : keys) {
+            add(key, 1);
+        }
+    }
+
+    int get(long key) {
+        return counts[find(key)];
+    }
+
+    LongCounter merge(LongCounter other) {
+        for (int slot = 0; slot < other.keys.length; slot++) {
+            if (other.counts[slot] != 0) {
+                add(other.keys[slot], other.counts[slot]);
+            }
+        }
+        return this;
+    }
+
+    long[] top(int limit, LongPredicate excluded) {
+        Comparator<Integer> worstFirst = Comparator.<Integer>comparingInt(slot -> counts[slot])
+                .thenComparing(Comparator.<Integer>comparingLong(slot -> keys[slot]).reversed());
+        PriorityQueue<Integer> top = new PriorityQueue<>(worstFirst);
+        for (int slot = 0; slot < keys.length && limit > 0; slot++) {
+            if (counts[slot] == 0 || excluded.test(keys[slot])) {
+                continue;
+            }
+            if (top.size() < limit) {
+                top.add(slot);
+            } else if (worstFirst.compare(slot, top.peek()) > 0) {
+                top.poll();
+                top.add(slot);
+            }
+        }
+
+        long[] result = new long[top.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = keys[top.poll()];
+        }
+        return result;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new int[oldCounts.length * 2];
+        shift--;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldCounts[i] != 0) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+        while (counts[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,145 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+public final class LongHashSet {
+
+    private static final long FREE = Long.MIN_VALUE;
+    private static final int MIN_CAPACITY = 4;
+    private static final long OBJECT_BYTES = 64;
+
+    private final StampedLock lock = new StampedLock();
+    private long[] slots;
+    private int shift;
+    private int size;
+
+    public LongHashSet(int expected) {
+        allocate(capacityFor(expected));
+    }
+
+    public boolean add(long id) {
+        long stamp = lock.writeLock();
+        try {
+            if ((size + 1) * 2 > slots.length) {
+                rehash(slots.length * 2);
+            }
+            int slot = find(id);
+            if (slots[slot] == id) {
+                return false;
+            }
+            slots[slot] = id;
+            size++;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean remove(long id) {
+        long stamp = lock.writeLock();
+        try {
+            int hole = find(id);
+            if (slots[hole] != id) {
+                return false;
+            }
+            int mask = slots.length - 1;
+            for (int next = (hole + 1) & mask; slots[next] != FREE; next = (next + 1) & mask) {
+                int home = home(slots[next]);
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    slots[hole] = slots[next];
+                    hole = next;
+                }
+            }
+            slots[hole] = FREE;
+            size--;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean contains(long id) {
+        long stamp = lock.readLock();
+        try {
+            return slots[find(id)] == id;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.tryOptimisticRead();
+        int count = size;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                count = size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return count;
+    }
+
+    public long[] toArray() {
+        long stamp = lock.tryOptimisticRead();
+        long[] copy = slots.clone();
+        int count = size;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                copy = slots.clone();
+                count = size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        long[] ids = new long[count];
+        int i = 0;
+        for (long id : copy) {
+            if (id != FREE) {
+                ids[i++] = id;
+            }
+        }
+        return ids;
+    }
+
+    long estimatedBytes() {
+        return OBJECT_BYTES + 8L * slots.length;
+    }
+
+    private int find(long id) {
+        int mask = slots.length - 1;
+        int slot = home(id);
+        while (slots[slot] != FREE && slots[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int home(long id) {
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    private void rehash(int capacity) {
+        long[] old = slots;
+        allocate(capacity);
+        for (long id : old) {
+            if (id != FREE) {
+                slots[find(id)] = id;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        slots = new long[capacity];
+        Arrays.fill(slots, FREE);
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+    }
+
+    private static int capacityFor(int expected) {
+        return Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, expected) * 2 - 1) * 2);
+    }
+}
@@ -0,0 +1,177 @@
+package ru.yandex.practicum.filmorate.storage.index;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+public class TrendingIndex {
+
+    private static final long BUCKET_MILLIS = Duration.ofHours(1).toMillis();
+
+    private final Clock clock;
+    private final int bucketCount;
+    private final NavigableMap<Integer, FilmPopularityIndex> windows = new TreeMap<>();
+    private final List<Map<Long, Set<Long>>> buckets;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long currentHour;
+
+    public TrendingIndex(Clock clock, @Value("${filmorate.trending.windows:1h,24h,7d}") List<Duration> windows) {
+        this.clock = clock;
+        for (Duration window : windows) {
+            this.windows.put(toHours(window), new FilmPopularityIndex());
+        }
+        this.bucketCount = this.windows.lastKey();
+        this.buckets = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            buckets.add(new HashMap<>());
+        }
+        this.currentHour = hourOf(clock.millis());
+    }
+
+    public Duration maxWindow() {
+        return Duration.ofHours(bucketCount);
+    }
+
+    public List<Duration> supportedWindows() {
+        return windows.keySet().stream()
+                .map(Duration::ofHours)
+                .toList();
+    }
+
+    public boolean supports(Duration window) {
+        return window.toMillis() % BUCKET_MILLIS == 0 && windows.containsKey((int) window.toHours());
+    }
+
+    public void reset() {
+        lock.lock();
+        try {
+            clear();
+            currentHour = hourOf(clock.millis());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void record(long filmId, long userId) {
+        record(filmId, userId, clock.instant());
+    }
+
+    public void record(long filmId, long userId, Instant likedAt) {
+        lock.lock();
+        try {
+            advanceTo(hourOf(clock.millis()));
+            long hour = Math.min(hourOf(likedAt.toEpochMilli()), currentHour);
+            if (hour <= currentHour - bucketCount) {
+                return;
+            }
+            if (bucket(hour).computeIfAbsent(filmId, id -> new HashSet<>()).add(userId)) {
+                adjustWindows(hour, filmId, 1);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void forget(long filmId, long userId) {
+        lock.lock();
+        try {
+            advanceTo(hourOf(clock.millis()));
+            for (long hour = currentHour; hour > currentHour - bucketCount; hour--) {
+                Map<Long, Set<Long>> bucket = bucket(hour);
+                Set<Long> users = bucket.get(filmId);
+                if (users != null && users.remove(userId)) {
+                    if (users.isEmpty()) {
+                        bucket.remove(filmId);
+                    }
+                    adjustWindows(hour, filmId, -1);
+                    return;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void removeFilm(long filmId) {
+        lock.lock();
+        try {
+            buckets.forEach(bucket -> bucket.remove(filmId));
+            windows.values().forEach(ranking -> ranking.remove(filmId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<Long> top(Duration window, int limit) {
+        lock.lock();
+        try {
+            advanceTo(hourOf(clock.millis()));
+            FilmPopularityIndex ranking = windows.get((int) window.toHours());
+            return ranking == null ? List.of() : ranking.top(limit);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void advanceTo(long hour) {
+        if (hour <= currentHour) {
+            return;
+        }
+        if (hour - currentHour >= bucketCount) {
+            clear();
+            currentHour = hour;
+            return;
+        }
+        while (currentHour < hour) {
+            currentHour++;
+            windows.forEach((hours, ranking) ->
+                    bucket(currentHour - hours).forEach((filmId, users) -> decrement(ranking, filmId, users.size())));
+            bucket(currentHour).clear();
+        }
+    }
+
+    private void adjustWindows(long hour, long filmId, int delta) {
+        windows.tailMap((int) (currentHour - hour), false).values().forEach(ranking -> {
+            if (delta > 0) {
+                ranking.register(filmId);
+                ranking.adjust(filmId, delta);
+            } else {
+                decrement(ranking, filmId, -delta);
+            }
+        });
+    }
+
+    private void clear() {
+        buckets.forEach(Map::clear);
+        windows.values().forEach(ranking -> ranking.reset(Map.of()));
+    }
+
+    private Map<Long, Set<Long>> bucket(long hour) {
+        return buckets.get((int) Math.floorMod(hour, (long) bucketCount));
+    }
+
+    private static void decrement(FilmPopularityIndex ranking, long filmId, long count) {
+        if (ranking.getLikes(filmId) <= count) {
+            ranking.remove(filmId);
+        } else {
+            ranking.adjust(filmId, -count);
+        }
+    }
+
+    private static long hourOf(long epochMillis) {
+        return Math.floorDiv(epochMillis, BUCKET_MILLIS);
+    }
+
+    private static int toHours(Duration window) {
+        if (window.toMillis() < BUCKET_MILLIS || window.toMillis() % BUCKET_MILLIS != 0) {
+            throw new IllegalStateException("Окно трендов должно быть кратно часу: " + window);
+        }
+        return (int) window.toHours();
+    }
+}
@@ -5,16 +5,33 @@ import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.index.FriendGraphIndex;
+import ru.yandex.practicum.filmorate.storage.index.LongArrays;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Component
 @Slf4j
 public class InMemoryUserStorage implements UserStorage {
 
-    private final Map<Long, User> users = new HashMap<>();
+    private static final int LOCK_STRIPES = 64;
+
+    private final Map<Long, User> users = new ConcurrentHashMap<>();
+    private final AtomicLong lastId = new AtomicLong();
+    private final FriendGraphIndex friendGraph = new FriendGraphIndex();
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    public InMemoryUserStorage() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
 
     @Override
     public Collection<User> getUserList() {
@@ -22,6 +39,23 @@ public class InMemoryUserStorage implements UserStorage {
         return users.values();
     }
 
+    @Override
+    public List<User> getUserPage(long afterId, int limit) {
+        return users.values().stream()
+                .filter(user -> user.getId() > afterId)
+                .sorted(Comparator.comparingLong(User::getId))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void streamUsers(long afterId, Consumer<User> consumer) {
+        users.values().stream()
+                .filter(user -> user.getId() > afterId)
+                .sorted(Comparator.comparingLong(User::getId))
+                .forEach(consumer);
+    }
+
     @Override
     public User addNewUser(User user) {
         validateUser(user);
@@ -35,20 +69,25 @@ public class InMemoryUserStorage implements UserStorage {
     @Override
     public User updateUserInfo(User user) {
         Long id = user.getId();
-        if (id == null || !users.containsKey(id)) {
+        if (id == null || users.computeIfPresent(id, (key, current) -> user) == null) {
             throw new NotFoundException("Пользователь с id=" + id + " не найден.");
         }
-        users.put(id, user);
         return user;
     }
 
     @Override
     public void deleteUser(Long userId) {
-        if (!users.containsKey(userId)) {
-            log.error("Удаление пользователя: id {} не найден (InMemory).", userId);
-            throw new NotFoundException("Пользователь с ID=" + userId + " не найден.");
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            if (users.remove(userId) == null) {
+                log.error("Удаление пользователя: id {} не найден (InMemory).", userId);
+                throw new NotFoundException("Пользователь с ID=" + userId + " не найден.");
+            }
+            friendGraph.removeUser(userId);
+        } finally {
+            lock.unlock();
         }
-        users.remove(userId);
         log.info("Пользователь удален: {} (InMemory)", userId);
     }
 
@@ -59,59 +98,81 @@ public class InMemoryUserStorage implements UserStorage {
             log.error("Пользователь не найден: id {} (InMemory)", userId);
             return Optional.empty();
         }
-        return Optional.of(user);
+        User snapshot = new User();
+        snapshot.setId(user.getId());
+        snapshot.setEmail(user.getEmail());
+        snapshot.setLogin(user.getLogin());
+        snapshot.setName(user.getName());
+        snapshot.setBirthday(user.getBirthday());
+        snapshot.setFriends(new HashSet<>(getFriendIds(userId)));
+        snapshot.setLikedFilms(new HashSet<>(user.getLikedFilms()));
+        return Optional.of(snapshot);
     }
 
     @Override
-    public void addFriend(Long userId, Long friendId) {
-        Optional<User> optUser = findUserById(userId);
-        Optional<User> optFriend = findUserById(friendId);
+    public Optional<User> findUserHeaderById(Long userId) {
+        return Optional.ofNullable(users.get(userId));
+    }
 
-        optUser.ifPresentOrElse(
-                user -> optFriend.ifPresentOrElse(
-                        friend -> {
-                            if (user.getFriends().add(friendId)) {
-                                log.info("Пользователь {} добавил в друзья пользователя {} (InMemory)", userId, friendId);
-                            } else {
-                                log.warn("Пользователь {} уже является другом пользователя {} (InMemory)", friendId, userId);
-                            }
-                        },
-                        () -> log.error("Пользователь с id {} не найден.", friendId)
-                ),
-                () -> log.error("Пользователь с id {} не найден.", userId)
-        );
+    @Override
+    public void addFriend(Long userId, Long friendId) {
+        withPairLocked(userId, friendId, () -> {
+            if (!users.containsKey(userId) || !users.containsKey(friendId)) {
+                log.error("Пользователь с id {} или {} не найден.", userId, friendId);
+                return;
+            }
+            if (friendGraph.add(userId, friendId)) {
+                log.info("Пользователь {} добавил в друзья пользователя {} (InMemory)", userId, friendId);
+            } else {
+                log.warn("Пользователь {} уже является другом пользователя {} (InMemory)", friendId, userId);
+            }
+        });
     }
 
     @Override
     public void deleteFriend(Long userId, Long friendId) {
-        Optional<User> optUser = findUserById(userId);
-        Optional<User> optFriend = findUserById(friendId);
-
-        optUser.ifPresentOrElse(
-                user -> optFriend.ifPresentOrElse(
-                        friend -> {
-                            if (user.getFriends().remove(friendId)) {
-                                log.info("Пользователь {} удалил из друзей пользователя {} (InMemory)", userId, friendId);
-                            } else {
-                                log.warn("Пользователь {} не был в друзьях у пользователя {} (InMemory)", friendId, userId);
-                            }
-                        },
-                        () -> log.error("Пользователь с id {} не найден.", friendId)
-                ),
-                () -> log.error("Пользователь с id {} не найден.", userId)
-        );
+        withPairLocked(userId, friendId, () -> {
+            if (friendGraph.remove(userId, friendId)) {
+                log.info("Пользователь {} удалил из друзей пользователя {} (InMemory)", userId, friendId);
+            } else {
+                log.warn("Пользователь {} не был в друзьях у пользователя {} (InMemory)", friendId, userId);
+            }
+        });
     }
 
     @Override
     public List<User> findUsersByIds(Collection<Long> ids) {
-        return users.values().stream()
-                .filter(user -> ids.contains(user.getId()))
+        return new LinkedHashSet<>(ids).stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<Long> getFriendIds(Long userId) {
+        return LongArrays.toList(friendGraph.friendsOf(userId));
+    }
+
+    @Override
+    public List<Long> getCommonFriendIds(Long userId, Long otherId) {
+        return LongArrays.toList(friendGraph.commonFriends(userId, otherId));
+    }
+
+    @Override
+    public List<Long> getFriendSuggestionIds(Long userId, int limit) {
+        return LongArrays.toList(friendGraph.suggestFriends(userId, limit));
+    }
+
     @Override
     public boolean isUserNotExists(Long id) {
-        return users.containsKey(id);
+        return !users.containsKey(id);
+    }
+
+    @Override
+    public List<Long> findMissingUserIds(Collection<Long> ids) {
+        return ids.stream()
+                .filter(id -> !users.containsKey(id))
+                .toList();
     }
 
     private void validateUser(User user) {
@@ -126,11 +187,27 @@ public class InMemoryUserStorage implements UserStorage {
     }
 
     private long getNextUserId() {
-        long currentMaxId = users.keySet()
-                .stream()
-                .mapToLong(id -> id)
-                .max()
-                .orElse(0);
-        return ++currentMaxId;
+        return lastId.incrementAndGet();
+    }
+
+    private ReentrantLock lockFor(long userId) {
+        return locks[stripe(userId)];
+    }
+
+    private static int stripe(long userId) {
+        return Long.hashCode(userId) & (LOCK_STRIPES - 1);
+    }
+
+    private void withPairLocked(long userId, long friendId, Runnable action) {
+        ReentrantLock first = locks[Math.min(stripe(userId), stripe(friendId))];
+        ReentrantLock second = locks[Math.max(stripe(userId), stripe(friendId))];
+        first.lock();
+        second.lock();
+        try {
+            action.run();
+        } finally {
+            second.unlock();
+            first.unlock();
+        }
     }
 }
\ No newline at end of file
@@ -5,11 +5,16 @@ import ru.yandex.practicum.filmorate.model.User;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface UserStorage {
 
     Collection<User> getUserList();
 
+    List<User> getUserPage(long afterId, int limit);
+
+    void streamUsers(long afterId, Consumer<User> consumer);
+
     User addNewUser(User user);
 
     User updateUserInfo(User updatedUser);
@@ -18,11 +23,21 @@ public interface UserStorage {
 
     Optional<User> findUserById(Long userId);
 
+    Optional<User> findUserHeaderById(Long userId);
+
     void addFriend(Long userId, Long friendId);
 
     void deleteFriend(Long userId, Long friendId);
 
     List<User> findUsersByIds(Collection<Long> ids);
 
+    List<Long> getFriendIds(Long userId);
+
+    List<Long> getCommonFriendIds(Long userId, Long otherId);
+
+    List<Long> getFriendSuggestionIds(Long userId, int limit);
+
     boolean isUserNotExists(Long id);
+
+    List<Long> findMissingUserIds(Collection<Long> ids);
 }
\ No newline at end of file
@@ -11,4 +11,4 @@ MERGE INTO genre (genre_id, genre_name) KEY(genre_id) VALUES (2, 'Драма');
 MERGE INTO genre (genre_id, genre_name) KEY(genre_id) VALUES (3, 'Мультфильм');
 MERGE INTO genre (genre_id, genre_name) KEY(genre_id) VALUES (4, 'Триллер');
 MERGE INTO genre (genre_id, genre_name) KEY(genre_id) VALUES (5, 'Документальный');
-MERGE INTO genre (genre_id, genre_name) KEY(genre_id) VALUES (6, 'Боевик');
\ No newline at end of file
+MERGE INTO genre (genre_id, genre_name) KEY(genre_id) VALUES (6, 'Боевик');
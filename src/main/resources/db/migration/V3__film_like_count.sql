@@ -0,0 +1,5 @@
+-- Счётчик лайков фильма
+ALTER TABLE films ADD COLUMN IF NOT EXISTS like_count INT DEFAULT 0 NOT NULL;
+
+-- Синхронизация счётчика лайков с таблицей Likes
+UPDATE films f SET like_count = (SELECT COUNT(*) FROM likes l WHERE l.film_id = f.film_id);
@@ -0,0 +1,11 @@
+-- Лайки пользователя
+CREATE INDEX IF NOT EXISTS idx_likes_user_film ON likes (user_id, film_id);
+
+-- Входящие заявки в друзья и удаление пользователя
+CREATE INDEX IF NOT EXISTS idx_friendship_friend_initiator ON friendship (friend_user_id, initiator_user_id);
+
+-- Фильмы по рейтингу MPA
+CREATE INDEX IF NOT EXISTS idx_films_rating ON films (rating_id, film_id);
+
+-- Фильмы по жанру
+CREATE INDEX IF NOT EXISTS idx_film_genre_genre_film ON film_genre (genre_id, film_id);
@@ -0,0 +1,11 @@
+-- Время постановки лайка
+ALTER TABLE likes ADD COLUMN IF NOT EXISTS created_at TIMESTAMP;
+
+-- Время старых лайков неизвестно: они не должны попадать в окна трендов
+UPDATE likes SET created_at = TIMESTAMP '1970-01-01 00:00:00' WHERE created_at IS NULL;
+
+ALTER TABLE likes ALTER COLUMN created_at SET DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE likes ALTER COLUMN created_at SET NOT NULL;
+
+-- Лайки за последние часы для восстановления индекса трендов
+CREATE INDEX IF NOT EXISTS idx_likes_created_at ON likes (created_at);
@@ -0,0 +1,121 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.dao.BufferedLikeStorage;
+import ru.yandex.practicum.filmorate.storage.index.FilmPopularityIndex;
+import ru.yandex.practicum.filmorate.storage.index.LikeMatrix;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "filmorate.likes.write-behind.enabled=true",
+        "filmorate.likes.write-behind.flush-interval-ms=60000"
+})
+@AutoConfigureTestDatabase
+class BufferedLikeStorageTest {
+    @Autowired
+    private BufferedLikeStorage likeStorage;
+    @Autowired
+    private FilmService filmService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private FilmPopularityIndex popularityIndex;
+    @Autowired
+    private LikeMatrix likeMatrix;
+
+    @Test
+    void bufferedLikesAreVisibleBeforeFlushAndCoalesced() {
+        Long filmId = filmService.addNewFilm(film()).getId();
+        Long first = userService.addNewUser(user("buffer1")).getId();
+        Long second = userService.addNewUser(user("buffer2")).getId();
+
+        filmService.likeFilm(filmId, first);
+        filmService.likeFilm(filmId, second);
+        filmService.removeLike(filmId, second);
+        filmService.likeFilm(filmId, second);
+        filmService.removeLike(filmId, second);
+
+        assertThat(likeStorage.hasLike(filmId, first)).isTrue();
+        assertThat(likeStorage.hasLike(filmId, second)).isFalse();
+        assertThat(likeStorage.getLikesForFilm(filmId)).isEqualTo(Set.of(first));
+        assertThat(likeStorage.getBufferDepth()).isEqualTo(1);
+        assertThat(likeStorage.getCoalescingRatio()).isEqualTo(0.8);
+        assertThat(countLikes(filmId)).isZero();
+
+        likeStorage.flush();
+
+        assertThat(likeStorage.getBufferDepth()).isZero();
+        assertThat(countLikes(filmId)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT like_count FROM films WHERE film_id = ?", Integer.class, filmId))
+                .isEqualTo(1);
+        assertThat(filmService.getTopRatedFilms(1).getFirst().getId()).isEqualTo(filmId);
+    }
+
+    @Test
+    void likeOfUnknownUserIsRejectedBeforeBuffering() {
+        Long filmId = filmService.addNewFilm(film()).getId();
+
+        assertThatThrownBy(() -> filmService.likeFilm(filmId, 9999L)).isInstanceOf(NotFoundException.class);
+        assertThat(likeStorage.getBufferDepth()).isZero();
+    }
+
+    @Test
+    void likesDroppedByTheFlushAreRemovedFromTheIndexes() {
+        Long filmId = filmService.addNewFilm(film()).getId();
+        Long kept = userService.addNewUser(user("dropped1")).getId();
+        Long deleted = userService.addNewUser(user("dropped2")).getId();
+
+        filmService.likeFilm(filmId, kept);
+        filmService.likeFilm(filmId, deleted);
+        userService.deleteUser(deleted);
+        assertThat(popularityIndex.getLikes(filmId)).isEqualTo(2);
+
+        likeStorage.flush();
+
+        assertThat(countLikes(filmId)).isEqualTo(1);
+        assertThat(popularityIndex.getLikes(filmId)).isEqualTo(1);
+        assertThat(likeMatrix.likesOf(deleted)).isEmpty();
+        assertThat(likeMatrix.likesOf(kept)).containsExactly(filmId);
+    }
+
+    private Integer countLikes(Long filmId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM likes WHERE film_id = ?", Integer.class, filmId);
+    }
+
+    private static Film film() {
+        Film film = new Film();
+        film.setName("Премьера");
+        film.setDescription("Описание");
+        film.setReleaseDate(LocalDate.of(2024, 1, 1));
+        film.setDuration(120);
+        MpaRating rating = new MpaRating();
+        rating.setId(1);
+        film.setMpa(rating);
+        return film;
+    }
+
+    private static User user(String login) {
+        User user = new User();
+        user.setEmail(login + "@example.com");
+        user.setLogin(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+}
@@ -0,0 +1,105 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.metrics.RequestQueryCounter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CatalogEtagTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    private long filmId;
+    private long userId;
+
+    @BeforeAll
+    void setUp() throws Exception {
+        filmId = create("/films", """
+                {"name": "Фильм", "description": "Описание", "releaseDate": "2000-01-01",
+                 "duration": 100, "mpa": {"id": 1}, "genres": [{"id": 1}]}
+                """);
+        userId = create("/users", """
+                {"email": "etag@example.com", "login": "etag", "birthday": "1990-01-01"}
+                """);
+    }
+
+    @Test
+    void conditionalGetReturnsNotModifiedWithoutQueries() throws Exception {
+        for (String path : new String[]{"/films", "/films/popular", "/films/" + filmId, "/genres", "/genres/1",
+                "/mpa", "/mpa/1"}) {
+            String etag = mvc.perform(get(path))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+            assertThat(etag).as(path).startsWith("\"");
+
+            try (RequestQueryCounter.Scope queries = RequestQueryCounter.open()) {
+                mvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag))
+                        .andExpect(status().isNotModified())
+                        .andExpect(header().string(HttpHeaders.ETAG, etag))
+                        .andExpect(content().string(""));
+                assertThat(queries.queries()).as(path).isZero();
+            }
+        }
+    }
+
+    @Test
+    void filmAndLikeChangesInvalidateTheEtag() throws Exception {
+        String etag = etag("/films");
+
+        mvc.perform(put("/films/{id}/like/{userId}", filmId, userId)).andExpect(status().isOk());
+        String afterLike = mvc.perform(get("/films/popular").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(afterLike).isNotEqualTo(etag);
+
+        create("/films", """
+                {"name": "Другой фильм", "description": "Описание", "releaseDate": "2001-01-01",
+                 "duration": 90, "mpa": {"id": 2}}
+                """);
+        mvc.perform(get("/films").header(HttpHeaders.IF_NONE_MATCH, afterLike))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag("/films")));
+    }
+
+    @Test
+    void userEndpointsAndNdjsonAreNotCached() throws Exception {
+        mvc.perform(get("/users"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+        mvc.perform(get("/films").accept("application/x-ndjson"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    private String etag(String path) throws Exception {
+        return mvc.perform(get(path)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private long create(String path, String body) throws Exception {
+        String response = mvc.perform(post(path).contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn().getResponse().getContentAsString();
+        return Long.parseLong(response.replaceAll("^\\{\"id\":(\\d+).*$", "$1"));
+    }
+}
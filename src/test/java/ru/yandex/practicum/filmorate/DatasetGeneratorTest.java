@@ -0,0 +1,57 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.datagen.DatasetGenerator;
+import ru.yandex.practicum.filmorate.datagen.DatasetProperties;
+import ru.yandex.practicum.filmorate.datagen.DatasetReport;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+class DatasetGeneratorTest {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void generatesSkewedDatasetAndKeepsIdentitiesUsable() {
+        DatasetProperties properties = new DatasetProperties();
+        properties.setUsers(500);
+        properties.setFilms(100);
+        properties.setMaxLikesPerUser(50);
+        properties.setMaxFriendsPerUser(50);
+        properties.setBatchSize(64);
+
+        DatasetReport report = new DatasetGenerator(jdbcTemplate, properties).generate();
+
+        assertThat(count("SELECT COUNT(*) FROM users")).isEqualTo(500);
+        assertThat(count("SELECT COUNT(*) FROM films")).isEqualTo(100);
+        assertThat(count("SELECT COUNT(*) FROM likes")).isEqualTo(report.likes()).isGreaterThanOrEqualTo(500);
+        assertThat(count("SELECT COUNT(*) FROM friendship")).isEqualTo(report.friendships());
+        assertThat(count("SELECT COUNT(*) FROM film_genre")).isEqualTo(report.filmGenres());
+        assertThat(count("SELECT COUNT(*) FROM friendship WHERE initiator_user_id = friend_user_id")).isZero();
+        assertThat(count("""
+                SELECT COUNT(*) FROM friendship a
+                JOIN friendship b ON a.initiator_user_id = b.friend_user_id AND a.friend_user_id = b.initiator_user_id
+                """)).isZero();
+        assertThat(count("SELECT COUNT(*) FROM films WHERE like_count <> "
+                + "(SELECT COUNT(*) FROM likes l WHERE l.film_id = films.film_id)")).isZero();
+
+        List<Long> likeCounts = jdbcTemplate.queryForList(
+                "SELECT like_count FROM films ORDER BY like_count DESC", Long.class);
+        assertThat(likeCounts.getFirst()).isGreaterThan(10 * likeCounts.get(likeCounts.size() / 2));
+
+        jdbcTemplate.update("INSERT INTO users (login, email, name, birthday) VALUES ('new', 'new@mail.ru', 'new', '2000-01-01')");
+        assertThat(count("SELECT MAX(user_id) FROM users")).isEqualTo(501);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
@@ -0,0 +1,109 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import ru.yandex.practicum.filmorate.cache.CatalogVersion;
+import ru.yandex.practicum.filmorate.metrics.RequestQueryCounter;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.dao.GenreDbStorage;
+import ru.yandex.practicum.filmorate.storage.dao.RatingDbStorage;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+class DictionaryCacheTest {
+    @Autowired
+    private GenreDbStorage genreStorage;
+    @Autowired
+    private RatingDbStorage ratingStorage;
+
+    @Test
+    void genresAreLoadedOnceUntilInvalidated() {
+        genreStorage.invalidateCache();
+
+        assertThat(queries(genreStorage::getGenreList)).isEqualTo(1);
+        assertThat(queries(genreStorage::getGenreList)).isZero();
+        assertThat(queries(() -> genreStorage.findGenreById(1))).isZero();
+        assertThat(genreStorage.getGenreList()).hasSize(6);
+
+        genreStorage.invalidateCache();
+
+        assertThat(queries(() -> genreStorage.findGenreById(1))).isEqualTo(1);
+        assertThat(queries(genreStorage::getGenreList)).isZero();
+    }
+
+    @Test
+    void ratingsAreLoadedOnceUntilInvalidated() {
+        ratingStorage.invalidateCache();
+
+        assertThat(queries(ratingStorage::getRatingList)).isEqualTo(1);
+        assertThat(queries(ratingStorage::getRatingList)).isZero();
+        assertThat(queries(() -> ratingStorage.getRatingById(1))).isZero();
+        assertThat(ratingStorage.getRatingList()).hasSize(5);
+
+        ratingStorage.invalidateCache();
+
+        assertThat(queries(() -> ratingStorage.getRatingById(1))).isEqualTo(1);
+        assertThat(queries(ratingStorage::getRatingList)).isZero();
+    }
+
+    @Test
+    void loadStartedBeforeInvalidationIsNotCached() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+        when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<Genre>>any()))
+                .thenAnswer(invocation -> {
+                    loading.countDown();
+                    assertThat(invalidated.await(5, TimeUnit.SECONDS)).isTrue();
+                    return List.of(genre(1, "Старое название"));
+                })
+                .thenReturn(List.of(genre(1, "Новое название")));
+        GenreDbStorage storage = new GenreDbStorage(jdbcTemplate, (rs, rowNum) -> null, null, new CatalogVersion());
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Collection<Genre>> staleRead = executor.submit(storage::getGenreList);
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            storage.invalidateCache();
+            invalidated.countDown();
+            assertThat(staleRead.get(5, TimeUnit.SECONDS)).extracting(Genre::getName).containsExactly("Старое название");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(storage.getGenreList()).extracting(Genre::getName).containsExactly("Новое название");
+        assertThat(storage.findGenreById(1)).map(Genre::getName).contains("Новое название");
+    }
+
+    private static Genre genre(int id, String name) {
+        Genre genre = new Genre();
+        genre.setId(id);
+        genre.setName(name);
+        return genre;
+    }
+
+    private int queries(Runnable action) {
+        try (RequestQueryCounter.Scope queries = RequestQueryCounter.open()) {
+            action.run();
+            return queries.queries();
+        }
+    }
+}
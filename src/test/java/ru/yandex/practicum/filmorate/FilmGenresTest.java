@@ -0,0 +1,84 @@
+package ru.yandex.practicum.filmorate;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.yandex.practicum.filmorate.metrics.RequestQueryCounter;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.storage.dao.FilmDbStorage;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+class FilmGenresTest {
+    @Autowired
+    private FilmDbStorage filmStorage;
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void savedStatementsAreCountedPerCall() {
+        Film film = filmStorage.addNewFilm(film());
+        DistributionSummary summary = registry.get("filmorate.film.genres.saved.statements").summary();
+        long calls = summary.count();
+
+        assertSaveGenres(film, List.of(1, 2, 3), 2, 2);
+        assertSaveGenres(film, List.of(1, 2, 3), 1, 3);
+        assertSaveGenres(film, List.of(1, 2, 4), 3, 1);
+        assertSaveGenres(film, List.of(), 2, 0);
+        assertSaveGenres(film, List.of(), 1, 0);
+
+        assertThat(summary.count()).isEqualTo(calls + 5);
+        assertThat(filmStorage.findById(film.getId()).orElseThrow().getGenres()).isEmpty();
+    }
+
+    @Test
+    void newFilmGenresAreInsertedWithoutReadingStoredOnes() {
+        Film film = film();
+        film.setGenres(new LinkedHashSet<>(List.of(genre(1), genre(2), genre(3))));
+
+        try (RequestQueryCounter.Scope queries = RequestQueryCounter.open()) {
+            filmStorage.addNewFilm(film);
+            assertThat(queries.queries()).isEqualTo(2);
+        }
+        assertThat(filmStorage.findById(film.getId()).orElseThrow().getGenres())
+                .extracting(Genre::getId)
+                .containsExactly(1, 2, 3);
+    }
+
+    private void assertSaveGenres(Film film, List<Integer> genreIds, int statements, int saved) {
+        film.setGenres(new LinkedHashSet<>(genreIds.stream().map(FilmGenresTest::genre).toList()));
+        try (RequestQueryCounter.Scope queries = RequestQueryCounter.open()) {
+            assertThat(filmStorage.saveGenres(film)).as("сэкономлено для %s", genreIds).isEqualTo(saved);
+            assertThat(queries.queries()).as("выполнено для %s", genreIds).isEqualTo(statements);
+        }
+    }
+
+    private static Genre genre(int id) {
+        Genre genre = new Genre();
+        genre.setId(id);
+        return genre;
+    }
+
+    private static Film film() {
+        Film film = new Film();
+        film.setName("Жанры");
+        film.setDescription("Описание");
+        film.setReleaseDate(LocalDate.of(2024, 1, 1));
+        film.setDuration(120);
+        MpaRating rating = new MpaRating();
+        rating.setId(1);
+        film.setMpa(rating);
+        return film;
+    }
+}
@@ -0,0 +1,120 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.storage.dao.FilmDbStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"filmorate.import.chunk-size=4", "filmorate.import.batch-size=2"})
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+class FilmImportTest {
+
+    private static final String VALID = """
+            {"name": "Фильм %d", "description": "Описание", "releaseDate": "2000-01-01",
+             "duration": 100, "mpa": {"id": 1}}""";
+    private static final String NO_NAME = """
+            {"description": "Описание", "releaseDate": "2000-01-01", "duration": 100, "mpa": {"id": 1}}""";
+    private static final String UNKNOWN_MPA = """
+            {"name": "Фильм", "releaseDate": "2000-01-01", "duration": 100, "mpa": {"id": 999}}""";
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @SpyBean
+    private FilmDbStorage filmStorage;
+
+    @Test
+    void mixedStreamIsImportedInChunksAndReportedInOrder() throws Exception {
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            items.add(switch (i % 3) {
+                case 0 -> VALID.formatted(i);
+                case 1 -> NO_NAME;
+                default -> UNKNOWN_MPA;
+            });
+        }
+        Integer before = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM films", Integer.class);
+
+        JsonNode results = importFilms("[" + String.join(",", items) + "]");
+
+        assertThat(results).hasSize(30);
+        for (int i = 0; i < 30; i++) {
+            JsonNode result = results.get(i);
+            assertThat(result.get("index").asInt()).isEqualTo(i);
+            assertThat(result.get("status").asText()).isEqualTo(i % 3 == 0 ? "CREATED" : "REJECTED");
+            assertThat(result.get("id").isNull()).isEqualTo(i % 3 != 0);
+        }
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM films", Integer.class)).isEqualTo(before + 10);
+        verify(filmStorage, times(7)).addNewFilms(anyList(), anyInt());
+    }
+
+    @Test
+    void failedBatchRejectsOnlyItsOwnFilms() throws Exception {
+        doCallRealMethod()
+                .doThrow(new DataIntegrityViolationException("сбой пакета"))
+                .doCallRealMethod()
+                .when(filmStorage).addNewFilms(anyList(), anyInt());
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            items.add(VALID.formatted(i));
+        }
+
+        JsonNode results;
+        try {
+            results = importFilms("[" + String.join(",", items) + "]");
+        } finally {
+            reset(filmStorage);
+        }
+
+        assertThat(results).hasSize(12);
+        for (int i = 0; i < 12; i++) {
+            boolean failedChunk = i >= 4 && i < 8;
+            assertThat(results.get(i).get("status").asText()).isEqualTo(failedChunk ? "REJECTED" : "CREATED");
+        }
+        assertThat(results.get(5).get("error").asText()).isEqualTo("Ошибка сохранения пакета фильмов.");
+    }
+
+    @Test
+    void malformedJsonStopsTheImportAfterFlushingEarlierResults() throws Exception {
+        JsonNode results = importFilms("[" + VALID.formatted(1) + "," + NO_NAME + ", {\"name\": ");
+
+        assertThat(results).hasSize(3);
+        assertThat(results.get(0).get("status").asText()).isEqualTo("CREATED");
+        assertThat(results.get(1).get("status").asText()).isEqualTo("REJECTED");
+        assertThat(results.get(2).get("index").asInt()).isEqualTo(2);
+        assertThat(results.get(2).get("error").asText()).startsWith("Некорректный JSON");
+    }
+
+    private JsonNode importFilms(String body) throws Exception {
+        String response = mvc.perform(post("/films/bulk").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response);
+    }
+}
@@ -6,8 +6,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.config.StorageExecutorConfig;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.dao.MultiKeyLoader;
 import ru.yandex.practicum.filmorate.storage.dao.UserDbStorage;
+import ru.yandex.practicum.filmorate.storage.index.FriendGraphIndex;
+import ru.yandex.practicum.filmorate.storage.index.LikeMatrix;
 
 
 import java.time.LocalDate;
@@ -18,7 +22,8 @@ import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 @JdbcTest
 @AutoConfigureTestDatabase
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
-@Import({UserDbStorage.class, ru.yandex.practicum.filmorate.mappers.UserRowMapper.class})
+@Import({UserDbStorage.class, ru.yandex.practicum.filmorate.mappers.UserRowMapper.class,
+		MultiKeyLoader.class, StorageExecutorConfig.class, FriendGraphIndex.class, LikeMatrix.class})
 class FilmorateApplicationTests {
 	private final UserDbStorage userStorage;
 
@@ -0,0 +1,46 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.storage.index.FriendGraphIndex;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FriendGraphIndexTest {
+
+    @Test
+    void suggestsNonFriendsByMutualFriendCount() {
+        FriendGraphIndex index = new FriendGraphIndex();
+        index.reset(Map.of(
+                1L, new long[]{2, 3, 4},
+                2L, new long[]{1, 3, 5, 6},
+                3L, new long[]{5, 7},
+                4L, new long[]{6, 5, 8}
+        ));
+
+        assertThat(index.suggestFriends(1, 10)).containsExactly(5, 6, 7, 8);
+        assertThat(index.suggestFriends(1, 2)).containsExactly(5, 6);
+        assertThat(index.suggestFriends(1, 0)).isEmpty();
+        assertThat(index.suggestFriends(9, 10)).isEmpty();
+    }
+
+    @Test
+    void suggestionsFollowFriendshipChanges() {
+        FriendGraphIndex index = new FriendGraphIndex();
+        index.reset(Map.of(
+                1L, new long[]{2},
+                2L, new long[]{3, 4}
+        ));
+        assertThat(index.suggestFriends(1, 10)).containsExactly(3, 4);
+
+        index.add(1, 3);
+        index.add(4, 5);
+        index.add(1, 4);
+        assertThat(index.suggestFriends(1, 10)).containsExactly(5);
+
+        index.remove(1, 4);
+        index.removeUser(2);
+        assertThat(index.suggestFriends(1, 10)).isEmpty();
+    }
+}
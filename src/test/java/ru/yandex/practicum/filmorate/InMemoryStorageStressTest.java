@@ -0,0 +1,294 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.index.FilmPopularityIndex;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryStorageStressTest {
+
+    private static final int THREADS = 8;
+
+    @Test
+    void concurrentInsertsGetUniqueIds() throws Exception {
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+        List<Long> userIds = new ArrayList<>();
+        List<Long> filmIds = new ArrayList<>();
+
+        runConcurrently(thread -> {
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < 2_000; i++) {
+                ids.add(userStorage.addNewUser(user("user" + thread + "_" + i)).getId());
+            }
+            return ids;
+        }).forEach(userIds::addAll);
+        runConcurrently(thread -> {
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < 2_000; i++) {
+                ids.add(filmStorage.addNewFilm(film("film" + thread + "_" + i)).getId());
+            }
+            return ids;
+        }).forEach(filmIds::addAll);
+
+        assertThat(new HashSet<>(userIds)).hasSize(THREADS * 2_000);
+        assertThat(new HashSet<>(filmIds)).hasSize(THREADS * 2_000);
+        assertThat(userStorage.getUserList()).hasSize(THREADS * 2_000);
+        assertThat(filmStorage.getFilmList()).hasSize(THREADS * 2_000);
+        assertThat(userStorage.getUserPage(0, Integer.MAX_VALUE))
+                .extracting(User::getId)
+                .containsExactlyElementsOf(userIds.stream().sorted().toList());
+    }
+
+    @Test
+    void concurrentFriendUpdatesOnSharedUsersAreNotLost() throws Exception {
+        InMemoryUserStorage storage = new InMemoryUserStorage();
+        int users = 64;
+        for (int i = 0; i < users; i++) {
+            storage.addNewUser(user("friend" + i));
+        }
+
+        runConcurrently(thread -> {
+            for (long userId = 1; userId <= users; userId++) {
+                for (long friendId = 1; friendId <= users; friendId++) {
+                    if (userId != friendId && (userId + friendId) % THREADS == thread) {
+                        storage.addFriend(userId, friendId);
+                        storage.addFriend(friendId, userId);
+                    }
+                }
+            }
+            for (long userId = 1; userId <= users; userId++) {
+                for (long friendId = 1; friendId <= users; friendId++) {
+                    if (userId != friendId && (userId + friendId) % THREADS == thread && friendId % 2 == 0) {
+                        storage.deleteFriend(userId, friendId);
+                    }
+                }
+            }
+            return null;
+        });
+
+        for (long userId = 1; userId <= users; userId++) {
+            List<Long> expected = new ArrayList<>();
+            for (long friendId = 1; friendId <= users; friendId++) {
+                if (friendId != userId && friendId % 2 == 1) {
+                    expected.add(friendId);
+                }
+            }
+            assertThat(storage.getFriendIds(userId)).as("друзья пользователя %d", userId)
+                    .containsExactlyElementsOf(expected);
+            assertThat(storage.findUserById(userId).orElseThrow().getFriends())
+                    .containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+
+    @Test
+    void deletedUsersDoNotKeepFriendsAddedConcurrently() throws Exception {
+        InMemoryUserStorage storage = new InMemoryUserStorage();
+        int users = 128;
+        for (int i = 0; i < users; i++) {
+            storage.addNewUser(user("deleted" + i));
+        }
+
+        runConcurrently(thread -> {
+            for (int round = 0; round < 10; round++) {
+                for (long userId = 1; userId <= users; userId++) {
+                    long friendId = (userId + thread + round) % users + 1;
+                    if (thread == 0 && round == 5 && userId % 4 == 0) {
+                        storage.deleteUser(userId);
+                    } else if (friendId != userId) {
+                        storage.addFriend(userId, friendId);
+                    }
+                }
+            }
+            return null;
+        });
+
+        for (long userId = 4; userId <= users; userId += 4) {
+            assertThat(storage.findUserById(userId)).isEmpty();
+            assertThat(storage.getFriendIds(userId)).as("друзья удалённого пользователя %d", userId).isEmpty();
+        }
+    }
+
+    @Test
+    void concurrentUpdatesKeepTheFilm() throws Exception {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        long filmId = storage.addNewFilm(film("original")).getId();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < 1_000; i++) {
+                Film update = film("title" + thread);
+                update.setId(filmId);
+                update.setDuration(100 + thread);
+                storage.updateFilmInfo(update);
+                assertThat(storage.findById(filmId)).isPresent();
+            }
+            return null;
+        });
+
+        Film stored = storage.findById(filmId).orElseThrow();
+        assertThat(stored.getDuration()).isEqualTo(100 + Integer.parseInt(stored.getName().substring(5)));
+    }
+
+    @Test
+    void concurrentLikesKeepTopFilmsOrdered() throws Exception {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        int films = 50;
+        for (int i = 0; i < films; i++) {
+            storage.addNewFilm(film("popular" + i));
+        }
+
+        runConcurrently(thread -> {
+            for (long filmId = 1; filmId <= films; filmId++) {
+                for (long userId = 0; userId < filmId % 10; userId++) {
+                    if (userId % THREADS == thread) {
+                        storage.addLike(filmId, userId);
+                        storage.addLike(filmId, userId + 100);
+                        storage.removeLike(filmId, userId + 100);
+                    }
+                }
+            }
+            return null;
+        });
+        storage.deleteFilm(9L);
+
+        List<Long> expected = new ArrayList<>();
+        for (int likes = 9; likes >= 0 && expected.size() < 10; likes--) {
+            for (long filmId = 1; filmId <= films && expected.size() < 10; filmId++) {
+                if (filmId % 10 == likes && filmId != 9) {
+                    expected.add(filmId);
+                }
+            }
+        }
+        assertThat(storage.getTopRatedFilms(10))
+                .extracting(Film::getId)
+                .containsExactlyElementsOf(expected);
+        assertThat(storage.findById(19L).orElseThrow().getLikes())
+                .containsExactlyInAnyOrder(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L)
+                .doesNotContain(100L);
+    }
+
+    @Test
+    void removeRacingWithAddOfTheSameLikeKeepsTheIndexInSync() throws Exception {
+        CountDownLatch added = new CountDownLatch(1);
+        CountDownLatch raced = new CountDownLatch(1);
+        InMemoryFilmStorage storage = new InMemoryFilmStorage(pauseAfterLike(added, raced));
+        storage.addNewFilm(film("first"));
+        long filmId = storage.addNewFilm(film("second")).getId();
+
+        raceWithAdd(storage, filmId, added, raced, () -> storage.removeLike(filmId, 1L));
+
+        assertThat(storage.findById(filmId).orElseThrow().getLikes()).isEmpty();
+        assertThat(storage.getTopRatedFilms(2)).extracting(Film::getId).containsExactly(1L, filmId);
+    }
+
+    @Test
+    void deleteRacingWithAddLikeLeavesNoPhantomFilm() throws Exception {
+        CountDownLatch added = new CountDownLatch(1);
+        CountDownLatch raced = new CountDownLatch(1);
+        InMemoryFilmStorage storage = new InMemoryFilmStorage(pauseAfterLike(added, raced));
+        storage.addNewFilm(film("kept"));
+        long filmId = storage.addNewFilm(film("deleted")).getId();
+
+        raceWithAdd(storage, filmId, added, raced, () -> storage.deleteFilm(filmId));
+
+        assertThat(storage.findById(filmId)).isEmpty();
+        assertThat(storage.getTopRatedFilms(1)).extracting(Film::getId).containsExactly(1L);
+    }
+
+    private static void raceWithAdd(InMemoryFilmStorage storage, long filmId, CountDownLatch added,
+                                    CountDownLatch raced, Runnable race) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Boolean> like = executor.submit(() -> storage.addLike(filmId, 1L));
+            assertThat(added.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<?> other = executor.submit(() -> {
+                race.run();
+                raced.countDown();
+            });
+            assertThat(like.get(5, TimeUnit.SECONDS)).isTrue();
+            other.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static FilmPopularityIndex pauseAfterLike(CountDownLatch added, CountDownLatch resume) {
+        return new FilmPopularityIndex() {
+            @Override
+            public void adjust(long filmId, long delta) {
+                super.adjust(filmId, delta);
+                if (delta > 0 && added.getCount() > 0) {
+                    added.countDown();
+                    try {
+                        resume.await(200, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        };
+    }
+
+    private static <T> List<T> runConcurrently(ThreadTask<T> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int index = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.run(index);
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static User user(String login) {
+        User user = new User();
+        user.setLogin(login);
+        user.setEmail(login + "@example.com");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+
+    private static Film film(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Описание");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        MpaRating mpa = new MpaRating();
+        mpa.setId(1);
+        film.setMpa(mpa);
+        return film;
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask<T> {
+        T run(int thread) throws Exception;
+    }
+}
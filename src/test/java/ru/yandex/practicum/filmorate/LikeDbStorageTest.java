@@ -0,0 +1,82 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.dao.LikeDbStorage;
+import ru.yandex.practicum.filmorate.storage.index.FilmPopularityIndex;
+import ru.yandex.practicum.filmorate.storage.index.LikeMatrix;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+class LikeDbStorageTest {
+    @Autowired
+    private LikeDbStorage likeStorage;
+    @Autowired
+    private FilmService filmService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private FilmPopularityIndex popularityIndex;
+    @Autowired
+    private LikeMatrix likeMatrix;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void indexesChangeOnlyAfterCommit() {
+        long filmId = filmService.addNewFilm(film()).getId();
+        long userId = userService.addNewUser(user("rollback")).getId();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(likeStorage.addLike(filmId, userId)).isTrue();
+            assertThat(popularityIndex.getLikes(filmId)).isZero();
+            status.setRollbackOnly();
+        });
+        assertThat(popularityIndex.getLikes(filmId)).isZero();
+        assertThat(likeMatrix.likesOf(userId)).isEmpty();
+
+        transactionTemplate.executeWithoutResult(status -> likeStorage.addLike(filmId, userId));
+        assertThat(popularityIndex.getLikes(filmId)).isEqualTo(1);
+        assertThat(likeMatrix.likesOf(userId)).containsExactly(filmId);
+        assertThat(userService.getUserById(userId).getLikedFilms()).containsExactly(filmId);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(likeStorage.removeLike(filmId, userId)).isTrue();
+            status.setRollbackOnly();
+        });
+        assertThat(popularityIndex.getLikes(filmId)).isEqualTo(1);
+        assertThat(likeMatrix.likesOf(userId)).containsExactly(filmId);
+    }
+
+    private static Film film() {
+        Film film = new Film();
+        film.setName("Откат");
+        film.setDescription("Описание");
+        film.setReleaseDate(LocalDate.of(2024, 1, 1));
+        film.setDuration(120);
+        MpaRating rating = new MpaRating();
+        rating.setId(1);
+        film.setMpa(rating);
+        return film;
+    }
+
+    private static User user(String login) {
+        User user = new User();
+        user.setEmail(login + "@example.com");
+        user.setLogin(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+}
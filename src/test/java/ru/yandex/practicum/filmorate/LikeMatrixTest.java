@@ -0,0 +1,153 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.storage.index.LikeMatrix;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LikeMatrixTest {
+
+    @Test
+    void recommendsFilmsOfUsersWithTheLargestOverlap() {
+        LikeMatrix matrix = new LikeMatrix(2);
+        matrix.reset(Map.of(
+                1L, new long[]{10, 11, 12},
+                2L, new long[]{10, 11, 12, 20, 21},
+                3L, new long[]{10, 11, 21, 22},
+                4L, new long[]{12, 23},
+                5L, new long[]{30}
+        ));
+
+        assertThat(matrix.recommend(1, 10)).containsExactly(21, 20, 22);
+        assertThat(matrix.recommend(1, 1)).containsExactly(21);
+        assertThat(matrix.recommend(5, 10)).isEmpty();
+        assertThat(matrix.recommend(6, 10)).isEmpty();
+    }
+
+    @Test
+    void recommendationsFollowLikeChanges() {
+        LikeMatrix matrix = new LikeMatrix(20);
+        matrix.reset(Map.of(1L, new long[]{10}));
+        assertThat(matrix.recommend(1, 10)).isEmpty();
+
+        matrix.add(2, 10);
+        matrix.add(2, 20);
+        matrix.add(3, 30);
+        assertThat(matrix.recommend(1, 10)).containsExactly(20);
+
+        matrix.add(1, 20);
+        assertThat(matrix.recommend(1, 10)).isEmpty();
+
+        matrix.remove(1, 20);
+        matrix.removeFilm(20);
+        matrix.add(2, 21);
+        assertThat(matrix.recommend(1, 10)).containsExactly(21);
+
+        matrix.removeUser(2);
+        assertThat(matrix.recommend(1, 10)).isEmpty();
+        assertThat(matrix.likeCount()).isEqualTo(2);
+    }
+
+    @Test
+    void scoresLargeLikeSetsInParallel() {
+        Map<Long, long[]> likes = new HashMap<>();
+        likes.put(1L, LongStream.rangeClosed(1, 500).toArray());
+        for (long userId = 2; userId <= 300; userId++) {
+            long from = userId;
+            likes.put(userId, LongStream.rangeClosed(from, from + 499).toArray());
+        }
+        LikeMatrix matrix = new LikeMatrix(3);
+        matrix.reset(likes);
+
+        assertThat(matrix.recommend(1, 10)).containsExactly(501, 502, 503);
+    }
+
+    @Test
+    void countsSurviveCandidateTableGrowth() {
+        Map<Long, long[]> likes = new HashMap<>();
+        likes.put(1L, new long[]{1});
+        for (long userId = 2; userId <= 5_001; userId++) {
+            long spread = userId << 32;
+            likes.put(userId, userId <= 4 ? new long[]{1, spread, 7L << 40} : new long[]{1, spread});
+        }
+        likes.put(5_002L, new long[]{1, 9L << 40});
+        likes.put(5_003L, new long[]{1, 9L << 40});
+        LikeMatrix matrix = new LikeMatrix(10_000);
+        matrix.reset(likes);
+
+        assertThat(matrix.recommend(1, 3)).containsExactly(7L << 40, 9L << 40, 2L << 32);
+    }
+
+    @Test
+    void hotFilmLikersFollowAddsAndRemoves() {
+        LikeMatrix matrix = new LikeMatrix(10_000);
+        matrix.reset(Map.of(0L, new long[]{1}));
+        Set<Long> likers = new HashSet<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            long userId = 1 + random.nextInt(3_000);
+            if (random.nextBoolean()) {
+                matrix.add(userId, 1);
+                matrix.add(userId, 100_000 + userId);
+                likers.add(userId);
+            } else {
+                matrix.remove(userId, 1);
+                likers.remove(userId);
+            }
+        }
+
+        assertThat(matrix.recommend(0, 10_000))
+                .containsExactlyInAnyOrder(likers.stream().mapToLong(userId -> 100_000 + userId).toArray());
+    }
+
+    @Test
+    void recommendationsReadWhileLikesChange() throws Exception {
+        LikeMatrix matrix = new LikeMatrix(20);
+        matrix.reset(Map.of(0L, new long[]{1}));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int thread = 0; thread < 3; thread++) {
+                long offset = thread * 1_000L;
+                writers.add(executor.submit(() -> {
+                    for (int round = 0; round < 20; round++) {
+                        for (long userId = 1; userId <= 1_000; userId++) {
+                            matrix.add(offset + userId, 1);
+                        }
+                        for (long userId = 1; userId <= 1_000; userId++) {
+                            matrix.remove(offset + userId, 1);
+                        }
+                    }
+                }));
+            }
+            Future<?> reader = executor.submit(() -> {
+                while (writers.stream().anyMatch(writer -> !writer.isDone())) {
+                    assertThat(matrix.recommend(0, 10)).isEmpty();
+                }
+            });
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+            reader.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        matrix.add(5, 1);
+        matrix.add(5, 2);
+        assertThat(matrix.recommend(0, 10)).containsExactly(2);
+    }
+}
@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LikeTimestampMigrationTest {
+
+    @Test
+    void existingLikesAreNotCountedAsRecent() {
+        DriverManagerDataSource dataSource =
+                new DriverManagerDataSource("jdbc:h2:mem:like-timestamps;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        migrate(dataSource, "4");
+        jdbcTemplate.update("INSERT INTO films (title, rating_id) VALUES ('Старый фильм', 1)");
+        jdbcTemplate.update("""
+                INSERT INTO users (login, email, name, birthday)
+                VALUES ('old', 'old@example.com', 'old', DATE '1990-01-01')
+                """);
+        jdbcTemplate.update("INSERT INTO likes (film_id, user_id) SELECT film_id, user_id FROM films, users");
+
+        migrate(dataSource, "5");
+        jdbcTemplate.update("""
+                INSERT INTO users (login, email, name, birthday)
+                VALUES ('new', 'new@example.com', 'new', DATE '1990-01-01')
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO likes (film_id, user_id)
+                SELECT f.film_id, u.user_id FROM films f, users u WHERE u.login = 'new'
+                """);
+
+        assertThat(createdAt(jdbcTemplate, "old")).isEqualTo(Timestamp.valueOf("1970-01-01 00:00:00"));
+        assertThat(createdAt(jdbcTemplate, "new").toInstant())
+                .isCloseTo(Instant.now(), within(1, ChronoUnit.MINUTES));
+        assertThat(jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM likes WHERE created_at >= DATEADD('HOUR', -168, CURRENT_TIMESTAMP)
+                """, Integer.class)).isEqualTo(1);
+    }
+
+    private static void migrate(DriverManagerDataSource dataSource, String version) {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .target(version)
+                .load()
+                .migrate();
+    }
+
+    private static Timestamp createdAt(JdbcTemplate jdbcTemplate, String login) {
+        return jdbcTemplate.queryForObject("""
+                SELECT l.created_at FROM likes l JOIN users u ON u.user_id = l.user_id WHERE u.login = ?
+                """, Timestamp.class, login);
+    }
+}
@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+import org.zalando.logbook.Strategy;
+import ru.yandex.practicum.filmorate.config.LogbookConfig;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LogbookConfigTest {
+
+    private final LogbookConfig config = new LogbookConfig();
+
+    @Test
+    void sampleRateControlsShareOfLoggedRequests() {
+        HttpRequest request = mock(HttpRequest.class);
+
+        assertTrue(config.requestCondition(1.0).test(request));
+        assertFalse(config.requestCondition(0.0).test(request));
+
+        Predicate<HttpRequest> sampled = config.requestCondition(0.1);
+        long logged = IntStream.range(0, 100_000).filter(i -> sampled.test(request)).count();
+        assertEquals(10_000, logged, 1_000);
+    }
+
+    @Test
+    void bodiesAreSkippedOnlyForExcludedListEndpoints() throws IOException {
+        Strategy strategy = config.strategy(Set.of("/films", "/users"));
+
+        HttpRequest list = request("GET", "/films");
+        HttpResponse listResponse = mock(HttpResponse.class);
+        strategy.process(list, listResponse);
+        verify(listResponse).withoutBody();
+        verify(listResponse, never()).withBody();
+
+        HttpRequest create = request("POST", "/films");
+        strategy.process(create);
+        verify(create).withBody();
+
+        HttpRequest single = request("GET", "/films/1");
+        HttpResponse singleResponse = mock(HttpResponse.class);
+        strategy.process(single, singleResponse);
+        verify(singleResponse).withBody();
+    }
+
+    private static HttpRequest request(String method, String path) {
+        HttpRequest request = mock(HttpRequest.class);
+        when(request.getMethod()).thenReturn(method);
+        when(request.getPath()).thenReturn(path);
+        return request;
+    }
+}
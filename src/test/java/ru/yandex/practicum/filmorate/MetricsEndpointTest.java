@@ -0,0 +1,41 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@AutoConfigureObservability
+class MetricsEndpointTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    void storageRouteAndCacheMetricsAreScraped() throws Exception {
+        mvc.perform(get("/films")).andExpect(status().isOk());
+        mvc.perform(get("/genres/{id}", 1)).andExpect(status().isOk());
+        mvc.perform(get("/films/popular")).andExpect(status().isOk());
+
+        String scrape = mvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(scrape)
+                .contains("filmorate_storage_seconds_count{")
+                .containsPattern("filmorate_storage_seconds_bucket\\{.*method=\"getFilmList\".*storage=\"FilmDbStorage\"")
+                .containsPattern("filmorate_storage_rows_count\\{.*method=\"getTopRatedFilms\"")
+                .containsPattern("filmorate_http_queries_count\\{.*uri=\"/films\"")
+                .containsPattern("filmorate_cache_requests_total\\{.*cache=\"genre\".*result=\"hit\"")
+                .containsPattern("http_server_requests_seconds_bucket\\{.*uri=\"/films/popular\"");
+    }
+}
@@ -0,0 +1,120 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PagingTest {
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final List<Long> filmIds = new ArrayList<>();
+    private final List<Long> userIds = new ArrayList<>();
+
+    @BeforeAll
+    void setUp() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            filmIds.add(create("/films", """
+                    {"name": "Страница %d", "description": "Описание", "releaseDate": "2000-01-01",
+                     "duration": 100, "mpa": {"id": 1}}
+                    """.formatted(i)));
+            userIds.add(create("/users", """
+                    {"email": "page%d@example.com", "login": "page%d", "birthday": "1990-01-01"}
+                    """.formatted(i, i)));
+        }
+    }
+
+    @Test
+    void filmPagesFollowTheKeyset() throws Exception {
+        assertPages("/films", filmIds);
+    }
+
+    @Test
+    void userPagesFollowTheKeyset() throws Exception {
+        assertPages("/users", userIds);
+    }
+
+    @Test
+    void pageLimitIsBounded() throws Exception {
+        for (String path : new String[]{"/films", "/users"}) {
+            mvc.perform(get(path).param("limit", "0")).andExpect(status().isBadRequest());
+            mvc.perform(get(path).param("limit", "1001")).andExpect(status().isBadRequest());
+            mvc.perform(get(path).param("limit", "2000000000")).andExpect(status().isBadRequest());
+            mvc.perform(get(path).param("limit", "1000")).andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    void filmsAndUsersStreamAsNdjson() throws Exception {
+        assertThat(stream("/films", filmIds.get(1))).containsExactlyElementsOf(filmIds.subList(2, 5));
+        assertThat(stream("/users", userIds.get(1))).containsExactlyElementsOf(userIds.subList(2, 5));
+        assertThat(stream("/films", filmIds.get(4))).isEmpty();
+    }
+
+    private void assertPages(String path, List<Long> ids) throws Exception {
+        long start = ids.get(0) - 1;
+        assertThat(page(path, start, 2)).containsExactlyElementsOf(ids.subList(0, 2));
+        assertThat(page(path, ids.get(1), 2)).containsExactlyElementsOf(ids.subList(2, 4));
+        assertThat(page(path, ids.get(3), 2)).containsExactly(ids.get(4));
+        assertThat(page(path, ids.get(4), 2)).isEmpty();
+    }
+
+    private List<Long> page(String path, long after, int limit) throws Exception {
+        String body = mvc.perform(get(path).param("after", String.valueOf(after)).param("limit", String.valueOf(limit)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsString();
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode node : objectMapper.readTree(body)) {
+            ids.add(node.get("id").asLong());
+        }
+        return ids;
+    }
+
+    private List<Long> stream(String path, long after) throws Exception {
+        String body = mvc.perform(get(path).param("after", String.valueOf(after)).accept(NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        List<Long> ids = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            if (!line.isEmpty()) {
+                ids.add(objectMapper.readTree(line).get("id").asLong());
+            }
+        }
+        assertThat(body.isEmpty() || body.endsWith("\n")).as("каждая запись завершается переводом строки").isTrue();
+        return ids;
+    }
+
+    private long create(String path, String body) throws Exception {
+        String response = mvc.perform(post(path).contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+}
@@ -0,0 +1,116 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import ru.yandex.practicum.filmorate.metrics.RequestQueryCounter;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Slf4j
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryCountTest {
+    private final Map<String, Long> report = new TreeMap<>();
+
+    @Autowired
+    private MockMvc mvc;
+
+    private long filmId;
+    private long userId;
+    private long friendId;
+
+    @BeforeAll
+    void setUp() throws Exception {
+        filmId = create("/films", """
+                {"name": "Фильм", "description": "Описание", "releaseDate": "2000-01-01",
+                 "duration": 100, "mpa": {"id": 1}, "genres": [{"id": 1}, {"id": 2}]}
+                """);
+        userId = create("/users", """
+                {"email": "first@example.com", "login": "first", "birthday": "1990-01-01"}
+                """);
+        friendId = create("/users", """
+                {"email": "second@example.com", "login": "second", "birthday": "1990-01-01"}
+                """);
+    }
+
+    @AfterAll
+    void printReport() {
+        StringBuilder text = new StringBuilder("Запросов к БД на эндпоинт:");
+        report.forEach((endpoint, count) -> text.append("\n  ").append(endpoint).append(" -> ").append(count));
+        log.info(text.toString());
+    }
+
+    @Test
+    void likeAndUnlikeUseOnlyExistenceChecks() throws Exception {
+        assertQueries("PUT /films/{id}/like/{userId}", put("/films/{id}/like/{userId}", filmId, userId), 2);
+        assertQueries("DELETE /films/{id}/like/{userId}", delete("/films/{id}/like/{userId}", filmId, userId), 2);
+    }
+
+    @Test
+    void likeErrorsAreResolvedAfterTheWrite() throws Exception {
+        mvc.perform(put("/films/{id}/like/{userId}", filmId, 9999)).andExpect(status().isNotFound());
+        mvc.perform(put("/films/{id}/like/{userId}", 9999, userId)).andExpect(status().isNotFound());
+        mvc.perform(delete("/films/{id}/like/{userId}", filmId, 9999)).andExpect(status().isNotFound());
+
+        mvc.perform(put("/films/{id}/like/{userId}", filmId, friendId)).andExpect(status().isOk());
+        mvc.perform(put("/films/{id}/like/{userId}", filmId, friendId)).andExpect(status().isInternalServerError());
+        mvc.perform(delete("/films/{id}/like/{userId}", filmId, friendId)).andExpect(status().isOk());
+        mvc.perform(delete("/films/{id}/like/{userId}", filmId, friendId)).andExpect(status().isInternalServerError());
+    }
+
+    @Test
+    void friendshipChangesUseOnlyExistenceChecks() throws Exception {
+        assertQueries("PUT /users/{id}/friends/{friendId}", put("/users/{id}/friends/{friendId}", userId, friendId), 4);
+        assertQueries("GET /users/{id}/friends", get("/users/{id}/friends", userId), 2);
+        assertQueries("GET /users/{id}/friends/suggestions", get("/users/{id}/friends/suggestions", friendId), 2);
+        assertQueries("GET /users/{id}/friends/common/{otherId}",
+                get("/users/{id}/friends/common/{otherId}", userId, friendId), 1);
+        assertQueries("DELETE /users/{id}/friends/{friendId}",
+                delete("/users/{id}/friends/{friendId}", userId, friendId), 4);
+    }
+
+    @Test
+    void singleEntityReads() throws Exception {
+        assertQueries("GET /films/{id}", get("/films/{id}", filmId), 1);
+        assertQueries("GET /users/{id}", get("/users/{id}", userId), 1);
+        assertQueries("GET /films/popular", get("/films/popular"), 2);
+        assertQueries("GET /users/{id}/recommendations", get("/users/{id}/recommendations", userId), 3);
+    }
+
+    private void assertQueries(String endpoint, RequestBuilder request, long maxQueries) throws Exception {
+        long count;
+        try (RequestQueryCounter.Scope queries = RequestQueryCounter.open()) {
+            mvc.perform(request).andExpect(status().is2xxSuccessful());
+            count = queries.queries();
+        }
+        report.merge(endpoint, count, Math::max);
+        assertThat(count).as(endpoint).isLessThanOrEqualTo(maxQueries);
+    }
+
+    private long create(String path, String body) throws Exception {
+        String response = mvc.perform(post(path).contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn().getResponse().getContentAsString();
+        return Long.parseLong(response.replaceAll("^\\{\"id\":(\\d+).*$", "$1"));
+    }
+}
@@ -0,0 +1,88 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.storage.dao.BufferedLikeStorage;
+import ru.yandex.practicum.filmorate.storage.dao.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.dao.GenreDbStorage;
+import ru.yandex.practicum.filmorate.storage.dao.LikeDbStorage;
+import ru.yandex.practicum.filmorate.storage.dao.RatingDbStorage;
+import ru.yandex.practicum.filmorate.storage.dao.UserDbStorage;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+class QueryPlanTest {
+    private static final List<Class<?>> STORAGES = List.of(FilmDbStorage.class, UserDbStorage.class,
+            LikeDbStorage.class, GenreDbStorage.class, RatingDbStorage.class, BufferedLikeStorage.class);
+
+    private static final Set<String> GROWING_TABLES = Set.of("FILMS", "USERS", "LIKES", "FRIENDSHIP", "FILM_GENRE");
+
+    private static final Set<String> FULL_READS = Set.of(
+            "FilmDbStorage.SQL_GET_ALL_FILMS",
+            "FilmDbStorage.SQL_GET_LIKE_COUNTS",
+            "LikeDbStorage.GET_ALL_LIKES_SQL",
+            "UserDbStorage.GET_ALL_USERS_SQL",
+            "UserDbStorage.LOAD_FRIEND_GRAPH_SQL"
+    );
+
+    private static final Pattern TABLE_SCAN = Pattern.compile("PUBLIC\\.(\\w+)\\.tableScan");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void hotQueriesDoNotScanGrowingTables() throws IllegalAccessException {
+        Map<String, String> queries = collectQueries();
+        assertThat(queries).isNotEmpty();
+
+        List<String> scans = new ArrayList<>();
+        for (Map.Entry<String, String> query : queries.entrySet()) {
+            if (FULL_READS.contains(query.getKey())) {
+                continue;
+            }
+            String plan = jdbcTemplate.queryForObject("EXPLAIN " + bind(query.getValue()), String.class);
+            TABLE_SCAN.matcher(plan).results()
+                    .map(match -> match.group(1))
+                    .filter(GROWING_TABLES::contains)
+                    .forEach(table -> scans.add(query.getKey() + " -> " + table + "\n" + plan));
+        }
+
+        assertThat(scans).as("Запросы с полным сканированием").isEmpty();
+    }
+
+    private static Map<String, String> collectQueries() throws IllegalAccessException {
+        Map<String, String> queries = new LinkedHashMap<>();
+        for (Class<?> storage : STORAGES) {
+            for (Field field : storage.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (field.getType() != String.class || !Modifier.isStatic(modifiers) || !Modifier.isFinal(modifiers)) {
+                    continue;
+                }
+                field.setAccessible(true);
+                String sql = ((String) field.get(null)).strip();
+                if (!sql.regionMatches(true, 0, "INSERT INTO", 0, 11) || sql.toUpperCase().contains("SELECT")) {
+                    queries.put(storage.getSimpleName() + "." + field.getName(), sql);
+                }
+            }
+        }
+        return queries;
+    }
+
+    private static String bind(String sql) {
+        return sql.replace("%s", "1, 2, 3").replace("?", "1");
+    }
+}
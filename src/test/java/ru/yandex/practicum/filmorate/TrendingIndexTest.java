@@ -0,0 +1,112 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.storage.index.TrendingIndex;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrendingIndexTest {
+
+    private static final Duration HOUR = Duration.ofHours(1);
+    private static final Duration DAY = Duration.ofHours(24);
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-01-01T00:30:00Z"));
+    private final TrendingIndex index = new TrendingIndex(clock, List.of(HOUR, DAY));
+
+    @Test
+    void ranksFilmsByLikesInsideTheWindow() {
+        like(1, 1, 2);
+        like(2, 1, 2, 3);
+        like(3, 1, 2);
+
+        assertThat(index.top(HOUR, 10)).containsExactly(2L, 1L, 3L);
+        assertThat(index.top(DAY, 2)).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void likesLeaveTheWindowWhenTheirBucketExpires() {
+        like(1, 1, 2, 3);
+        clock.advance(HOUR);
+        like(2, 1);
+
+        assertThat(index.top(HOUR, 10)).containsExactly(2L);
+        assertThat(index.top(DAY, 10)).containsExactly(1L, 2L);
+
+        clock.advance(Duration.ofHours(23));
+        assertThat(index.top(DAY, 10)).containsExactly(2L);
+
+        clock.advance(Duration.ofDays(3));
+        assertThat(index.top(DAY, 10)).isEmpty();
+    }
+
+    @Test
+    void removedLikesAndFilmsAreForgotten() {
+        like(1, 1, 2);
+        clock.advance(HOUR);
+        like(2, 3);
+        index.forget(1, 2);
+        index.forget(1, 3);
+
+        assertThat(index.top(DAY, 10)).containsExactly(1L, 2L);
+        index.forget(1, 1);
+        assertThat(index.top(DAY, 10)).containsExactly(2L);
+
+        index.removeFilm(2);
+        assertThat(index.top(DAY, 10)).isEmpty();
+    }
+
+    @Test
+    void rebuildKeepsOnlyRecentLikes() {
+        Instant now = clock.instant();
+        index.reset();
+        index.record(1, 1, now.minus(Duration.ofHours(30)));
+        index.record(1, 2, now.minus(Duration.ofHours(3)));
+        index.record(2, 1, now);
+        index.record(2, 2, now.minus(Duration.ofMinutes(10)));
+
+        assertThat(index.top(DAY, 10)).containsExactly(2L, 1L);
+        assertThat(index.top(HOUR, 10)).containsExactly(2L);
+        assertThat(index.supports(Duration.ofHours(24))).isTrue();
+        assertThat(index.supports(Duration.ofHours(2))).isFalse();
+    }
+
+    private void like(long filmId, long... userIds) {
+        for (long userId : userIds) {
+            index.record(filmId, userId);
+        }
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}